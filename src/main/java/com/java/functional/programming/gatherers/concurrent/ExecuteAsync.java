@@ -0,0 +1,126 @@
+package com.java.functional.programming.gatherers.concurrent;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Gatherer;
+
+/**
+ * Non-blocking variant of ExecuteConcurrent for mappers which are asynchronous already (e.g. HttpClient.sendAsync):
+ * the mapper is called on the stream's thread and returns a CompletionStage, no thread is started or parked per in flight request.
+ * Completions are collected by a callback on the stage into a lock-free queue, and the stream's thread (the only consumer)
+ * is unparked when it is waiting for one. That thread is the only one that ever waits, and only when all maxConcurrency slots are busy,
+ * or in finish. So the cost of an in flight request is its future and callback, not a thread and its stack.
+ *
+ * Like ExecuteConcurrent: results are emitted in the order they complete, every integrate call drains all completed results,
+ * the first failure (of the stage, or thrown by the mapper) fails the stream, and on a failure or when downstream rejects a push,
+ * the in flight stages are cancelled. Whether that aborts the underlying request depends on the async client.
+ * A stage returned for several elements (e.g. by an async cache or a coalescer) takes a slot, and emits a result, for each of them.
+ * */
+public class ExecuteAsync<T, R> {
+
+    private record Outcome<R>(CompletableFuture<R> future, R result, Throwable error) {
+    }
+
+    private final int maxConcurrency;
+    private final Function<T, ? extends CompletionStage<R>> mapperFunction;
+    private final ConcurrentLinkedQueue<Outcome<R>> completed = new ConcurrentLinkedQueue<>();
+    private final Map<CompletableFuture<R>, Integer> inFlight = new IdentityHashMap<>(); // admissions per stage, only accessed by the stream's thread
+    private int inFlightCount; // admissions not emitted yet, a stage shared by several elements counts for each of them
+    private volatile Thread consumer; // the stream's thread while it waits for an outcome, unparked by the callbacks
+
+    public ExecuteAsync(final int maxConcurrency, final Function<T, ? extends CompletionStage<R>> mapperFunction) {
+        this.maxConcurrency = Preconditions.requirePositive(maxConcurrency, "maxConcurrency");
+        this.mapperFunction = Objects.requireNonNull(mapperFunction, "mapperFunction");
+    }
+
+    boolean integrate(T element, Gatherer.Downstream<? super R> downstream) {
+        try {
+            this.submit(element);
+            boolean shouldContinue = true;
+            // capacity is full. we must emit at least 1 more result to accept 1 more item from upstream.
+            while (shouldContinue && inFlightCount >= maxConcurrency) {
+                shouldContinue = downstream.push(this.resultOf(this.awaitNextOutcome()));
+            }
+            // opportunistic draining: push whatever completed in the meantime, poll() does not block.
+            Outcome<R> outcome;
+            while (shouldContinue && (outcome = completed.poll()) != null) {
+                shouldContinue = downstream.push(this.resultOf(outcome));
+            }
+            if (!shouldContinue) {
+                this.cancelInFlight(); // downstream short-circuited (e.g. limit), cancel right away instead of waiting for finish
+            }
+            return shouldContinue;
+        } catch (RuntimeException | Error e) {
+            this.cancelInFlight(); // a failing task or downstream ends the stream, finish will not be called
+            throw e;
+        }
+    }
+
+    void finish(Gatherer.Downstream<? super R> downstream) {
+        try {
+            boolean shouldContinue = !downstream.isRejecting();
+            while (inFlightCount > 0 && shouldContinue) {
+                shouldContinue = downstream.push(this.resultOf(this.awaitNextOutcome()));
+            }
+        } finally {
+            this.cancelInFlight();
+        }
+    }
+
+    private void submit(T element) {
+        CompletableFuture<R> future = Objects.requireNonNull(mapperFunction.apply(element), "stage returned by mapperFunction").toCompletableFuture();
+        inFlight.merge(future, 1, Integer::sum);
+        inFlightCount++;
+        future.whenComplete((result, error) -> { // one callback per admission, so a shared stage queues one outcome per element // runs on the completing thread, or right here when already completed
+            completed.add(new Outcome<>(future, result, error));
+            var waiting = consumer; // null: nobody waits, the outcome is found by the next poll
+            if (waiting != null) {
+                LockSupport.unpark(waiting);
+            }
+        });
+    }
+
+    /**
+     * parks the stream's thread until a callback queued an outcome. A spurious wake-up just polls again.
+     * The thread is published before polling, so a callback queueing after the poll always sees it and unparks it.
+     * */
+    private Outcome<R> awaitNextOutcome() {
+        consumer = Thread.currentThread();
+        try {
+            Outcome<R> outcome;
+            while ((outcome = completed.poll()) == null) {
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(new InterruptedException());
+                }
+            }
+            return outcome;
+        } finally {
+            consumer = null; // callbacks completing while the consumer is not waiting must not unpark it, it may be parked elsewhere
+        }
+    }
+
+    private R resultOf(Outcome<R> outcome) {
+        inFlight.computeIfPresent(outcome.future(), (future, admissions) -> admissions == 1 ? null : admissions - 1);
+        inFlightCount--;
+        if (outcome.error() != null) {
+            var cause = outcome.error() instanceof CompletionException ce && ce.getCause() != null ? ce.getCause() : outcome.error();
+            throw new RuntimeException(cause);
+        }
+        return outcome.result();
+    }
+
+    private void cancelInFlight() {
+        inFlight.keySet().forEach(future -> future.cancel(true));
+        inFlight.clear();
+        inFlightCount = 0;
+    }
+}
@@ -0,0 +1,232 @@
+package com.java.functional.programming.gatherers.concurrent;
+
+import com.java.functional.programming.gatherers.concurrent.deadline.Deadline;
+import com.java.functional.programming.gatherers.concurrent.deadline.DeadlineExceededException;
+import com.java.functional.programming.gatherers.concurrent.limit.ConcurrencyLimit;
+import com.java.functional.programming.gatherers.concurrent.metrics.ConcurrencyMetrics;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Gatherer;
+
+/**
+ * Executes the given tasks concurrently using virtual threads. It does NOT delay the errors.
+ * The executor service is owned by this state object: it is shut down (cancelling any pending tasks)
+ * when the stream finishes, as soon as a task fails, or as soon as a push is rejected by downstream (e.g. limit(n) got its n results),
+ * so no backend call is made or awaited for a result nobody will consume.
+ * Every integrate call also drains, without blocking, all results which already completed,
+ * so downstream sees a result as soon as it exists and not only when the window is full or the stream finishes.
+ * With a task timeout, a task which does not complete within it is cancelled (interrupted) and fails the stream with a TimeoutException,
+ * so a hung call can never hold a concurrency slot forever.
+ * A Deadline bound by the caller is propagated into every task (capped by the task timeout), where nested calls can read the remaining budget.
+ * A task that only starts after the deadline fails without running, one still running at the deadline is cancelled like a timed out task.
+ * In flight tasks, window saturation, task latency and the time results wait for downstream are reported to the ConcurrencyMetrics.
+ * */
+public class ExecuteConcurrent<T, R> {
+
+    private record Completed<R>(R result, long completedAtNanos) {
+    }
+
+    private int taskCount;
+    private final ConcurrencyLimit concurrencyLimit;
+    private final ConcurrencyMetrics metrics;
+    private final Function<T, R> mapperFunction;
+    private final ExecutorService executorService;
+    private final ExecutorCompletionService<Completed<R>> completionService;
+    private final Duration taskTimeout; // null: no timeout
+    private final Map<Future<Completed<R>>, Long> deadlines; // in submission order, so the first entry always has the earliest deadline. Empty without timeout or Deadline
+
+    public ExecuteConcurrent(final int maxConcurrency,
+                             final Function<T, R> mapperFunction,
+                             final ExecutorService executorService) {
+        this(ConcurrencyLimit.fixed(maxConcurrency), mapperFunction, executorService);
+    }
+
+    public ExecuteConcurrent(final ConcurrencyLimit concurrencyLimit,
+                             final Function<T, R> mapperFunction,
+                             final ExecutorService executorService) {
+        this(concurrencyLimit, null, mapperFunction, executorService);
+    }
+
+    public ExecuteConcurrent(final ConcurrencyLimit concurrencyLimit,
+                             final Duration taskTimeout,
+                             final Function<T, R> mapperFunction,
+                             final ExecutorService executorService) {
+        this(concurrencyLimit, taskTimeout, ConcurrencyMetrics.noop(), mapperFunction, executorService);
+    }
+
+    public ExecuteConcurrent(final ConcurrencyLimit concurrencyLimit,
+                             final Duration taskTimeout,
+                             final ConcurrencyMetrics metrics,
+                             final Function<T, R> mapperFunction,
+                             final ExecutorService executorService) {
+        this.metrics = Objects.requireNonNull(metrics, "metrics");
+        this.taskTimeout = taskTimeout == null ? null : Preconditions.requirePositive(taskTimeout, "taskTimeout");
+        this.deadlines = new LinkedHashMap<>();
+        this.concurrencyLimit = Objects.requireNonNull(concurrencyLimit, "concurrencyLimit");
+        this.mapperFunction = Objects.requireNonNull(mapperFunction, "mapperFunction");
+        this.executorService = Objects.requireNonNull(executorService, "executorService");
+        this.completionService = new ExecutorCompletionService<>(executorService);
+    }
+
+    /**
+     * Notes about ExecutorCompletionService:
+     * ExecutorCompletionService is a utility that helps you submit a bunch of Callable tasks to an Executor and then retrieve their results as they complete, rather than in the order they were submitted.
+     * It essentially combines:
+     *   - an Executor (e.g., a thread pool) that runs your tasks, and
+     *   - a completion queue (BlockingQueue<Future<V>>) where task results are placed, as and when the tasks are completed.
+     * This pattern is great when task durations vary, and you want to process fast results immediately without waiting for slow ones.
+     * */
+
+    boolean integrate(T element, Gatherer.Downstream<? super R> downstream) {
+        taskCount++;
+        metrics.inFlightChanged(1);
+        this.submit(element, taskCount);
+        try {
+            boolean shouldContinue = true;
+            boolean saturated = false;
+            // capacity is full. we must emit at least 1 more result to accept 1 more item from upstream.
+            // an adaptive limit may also have shrunk since the last call, in that case we drain until we are back under it.
+            while (shouldContinue && taskCount >= concurrencyLimit.getLimit()) {
+                saturated = true;
+                shouldContinue = downstream.push(this.takeNextCompletedResult());
+            }
+            metrics.elementAccepted(saturated);
+            // opportunistic draining: push whatever completed in the meantime, poll() does not block.
+            Future<Completed<R>> completed;
+            while (shouldContinue && (completed = this.completionService.poll()) != null) {
+                shouldContinue = downstream.push(this.resultOf(completed));
+            }
+            if (!shouldContinue) {
+                this.abandonInFlightTasks(); // downstream short-circuited (e.g. limit), cancel right away instead of waiting for finish
+            }
+            return shouldContinue;
+        } catch (RuntimeException | Error e) {
+            this.abandonInFlightTasks(); // a failing task or downstream ends the stream, finish will not be called
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the mapper and reports its latency and outcome to the concurrency limit and the metrics.
+     * Tasks cancelled by shutdownNow() are not reported, they say nothing about the backend.
+     * */
+    private void submit(T element, int inFlight) {
+        var deadline = this.taskDeadline();
+        var future = this.completionService.submit(() -> {
+            if (deadline != null && deadline.isExpired()) {
+                throw new DeadlineExceededException("deadline exceeded before the task started");
+            }
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                R result = deadline == null ? mapperFunction.apply(element) : deadline.call(() -> mapperFunction.apply(element));
+                failed = false;
+                return new Completed<>(result, System.nanoTime());
+            } finally {
+                if (!this.executorService.isShutdown()) {
+                    long latency = System.nanoTime() - start;
+                    this.concurrencyLimit.onSample(latency, inFlight, failed);
+                    this.metrics.taskCompleted(latency, failed);
+                }
+            }
+        });
+        if (deadline != null) {
+            this.deadlines.put(future, deadline.deadlineNanos());
+        }
+    }
+
+    /**
+     * the Deadline of the caller (read on the stream's thread, it does not change during the evaluation) capped by the task timeout, or null.
+     * Both only move forward in time, which keeps the deadlines map ordered by deadline.
+     * */
+    private Deadline taskDeadline() {
+        var callerDeadline = Deadline.current().orElse(null);
+        if (taskTimeout == null) {
+            return callerDeadline;
+        }
+        var timeout = Deadline.after(taskTimeout);
+        return callerDeadline == null ? timeout : callerDeadline.earliest(timeout);
+    }
+
+    void finish(Gatherer.Downstream<? super R> downstream) {
+        try {
+            boolean shouldContinue = !downstream.isRejecting();
+
+            while (taskCount > 0 && shouldContinue) {
+                shouldContinue = downstream.push(this.takeNextCompletedResult());
+            }
+        } finally {
+            this.abandonInFlightTasks();
+        }
+    }
+
+    private void abandonInFlightTasks() {
+        this.executorService.shutdownNow(); // it will cancel if there are any pending tasks
+        metrics.inFlightChanged(-taskCount);
+        taskCount = 0;
+    }
+
+    /**
+     * get the item (completed result) from the completion queue
+     * */
+    private R takeNextCompletedResult() {
+        try {
+            if (this.deadlines.isEmpty()) {
+                return this.resultOf(this.completionService.take()); // take() is blocking
+            }
+            return this.resultOf(this.takeNextCompletedResultBeforeDeadline());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * result of a completed future, taken from the completion queue. The task no longer counts as in flight, whatever its outcome.
+     * */
+    private R resultOf(Future<Completed<R>> completed) {
+        taskCount--;
+        metrics.inFlightChanged(-1);
+        this.deadlines.remove(completed);
+        try {
+            var result = completed.get(); // completed, does not block
+            metrics.resultEmitted(System.nanoTime() - result.completedAtNanos());
+            return result.result();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * waits at most until the earliest deadline of the in flight tasks. If that passes first, the overdue task is cancelled and fails the stream.
+     * */
+    private Future<Completed<R>> takeNextCompletedResultBeforeDeadline() throws InterruptedException {
+        while (true) {
+            var earliest = this.deadlines.entrySet().iterator().next();
+            var future = this.completionService.poll(earliest.getValue() - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (future != null) {
+                return future;
+            }
+            if (!earliest.getKey().isDone()) {
+                earliest.getKey().cancel(true);
+                throw new RuntimeException(new TimeoutException(taskTimeout == null
+                        ? "task did not complete before the deadline"
+                        : "task did not complete within " + taskTimeout + " or before the deadline"));
+            }
+            // completed right at its deadline, poll again to pick it up
+        }
+    }
+}
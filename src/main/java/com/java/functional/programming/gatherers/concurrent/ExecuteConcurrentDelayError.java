@@ -0,0 +1,175 @@
+package com.java.functional.programming.gatherers.concurrent;
+
+import com.java.functional.programming.gatherers.concurrent.errors.ErrorAccounting;
+import com.java.functional.programming.gatherers.concurrent.errors.ErrorBudget;
+import com.java.functional.programming.gatherers.concurrent.retry.RetryPolicy;
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Gatherer;
+
+/**
+ * Executes the given tasks concurrently using virtual threads.
+ * It emits successful results first and then (delay the errors) throws exception at the end!
+ * Like ExecuteConcurrent, every integrate call drains, without blocking, all results which already completed.
+ * The executor service is owned by this state object and is always shut down in finish, or as soon as downstream rejects a push.
+ *
+ * Failed tasks are retried according to the RetryPolicy. A retry waiting for its backoff does NOT hold a concurrency slot:
+ * it is parked in a queue ordered by due time and resubmitted once it is due and a slot is free.
+ * To keep memory bounded, no more upstream elements are accepted while maxConcurrency retries are waiting.
+ *
+ * Errors are tracked in constant memory (ErrorAccounting): a capped sample of the exceptions plus a counter per exception type.
+ * When the ErrorBudget is exceeded the stream is aborted right away, the in-flight tasks are cancelled,
+ * and a DelayedExecutionException is thrown instead of running the rest of the stream against a broken backend.
+ * */
+public class ExecuteConcurrentDelayError<T, R> {
+
+    private record Attempt<T>(T element, int number) {
+    }
+
+    private record Outcome<T, R>(Attempt<T> attempt, R result, Throwable error) {
+    }
+
+    private record Retry<T>(Attempt<T> attempt, long dueNanos) {
+    }
+
+    private int taskCount;
+    private final int maxConcurrency;
+    private final Function<T, R> mapperFunction;
+    private final RetryPolicy retryPolicy;
+    private final ExecutorService executorService;
+    private final ExecutorCompletionService<Outcome<T, R>> completionService;
+    private final PriorityQueue<Retry<T>> retries;
+    private final ErrorAccounting errors;
+
+    public ExecuteConcurrentDelayError(final int maxConcurrency,
+                                       final Function<T, R> mapperFunction,
+                                       final ExecutorService executorService) {
+        this(maxConcurrency, RetryPolicy.noRetry(), ErrorBudget.unlimited(), mapperFunction, executorService);
+    }
+
+    public ExecuteConcurrentDelayError(final int maxConcurrency,
+                                       final RetryPolicy retryPolicy,
+                                       final ErrorBudget errorBudget,
+                                       final Function<T, R> mapperFunction,
+                                       final ExecutorService executorService) {
+        this.maxConcurrency = Preconditions.requirePositive(maxConcurrency, "maxConcurrency");
+        this.retryPolicy = Objects.requireNonNull(retryPolicy, "retryPolicy");
+        this.mapperFunction = Objects.requireNonNull(mapperFunction, "mapperFunction");
+        this.executorService = Objects.requireNonNull(executorService, "executorService");
+        this.completionService = new ExecutorCompletionService<>(executorService);
+        this.retries = new PriorityQueue<>(Comparator.comparingLong(Retry::dueNanos));
+        this.errors = new ErrorAccounting(errorBudget);
+    }
+
+    boolean integrate(T element, Gatherer.Downstream<? super R> downstream) {
+        this.submit(new Attempt<>(element, 1));
+        try {
+            var shouldContinue = true;
+            // capacity is full. we must emit at least 1 more result to accept 1 more item from upstream.
+            while (shouldContinue && (taskCount >= maxConcurrency || retries.size() >= maxConcurrency)) {
+                shouldContinue = this.emitNextCompletedResult(downstream);
+            }
+            // opportunistic draining: push whatever completed in the meantime, poll() does not block.
+            Future<Outcome<T, R>> completed;
+            while (shouldContinue && (completed = this.completionService.poll()) != null) {
+                shouldContinue = this.handleCompleted(completed, downstream);
+            }
+            if (!shouldContinue) {
+                this.executorService.shutdownNow(); // downstream short-circuited (e.g. limit), cancel right away instead of waiting for finish
+            }
+            return shouldContinue;
+        } catch (RuntimeException | Error e) {
+            this.executorService.shutdownNow(); // an exceeded error budget or a failing downstream ends the stream, finish will not be called
+            throw e;
+        }
+    }
+
+    void finish(Gatherer.Downstream<? super R> downstream) {
+        var shouldContinue = !downstream.isRejecting();
+        try {
+            while ((taskCount > 0 || !retries.isEmpty()) && shouldContinue) {
+                shouldContinue = this.emitNextCompletedResult(downstream);
+            }
+        } finally {
+            this.executorService.shutdownNow(); // it will cancel if there are any pending tasks
+        }
+        if (shouldContinue && errors.hasErrors()){
+            throw errors.toException("Delayed Execution Exception");
+        }
+    }
+
+    private void submit(Attempt<T> attempt) {
+        this.completionService.submit(() -> {
+            try {
+                return new Outcome<>(attempt, mapperFunction.apply(attempt.element()), null);
+            } catch (Throwable e) {
+                return new Outcome<>(attempt, null, e);
+            }
+        });
+        taskCount++;
+    }
+
+    /**
+     * Waits for the next completed task, or for the next retry to become due, whichever comes first.
+     * A failed task is either scheduled for retry or recorded as error, both return true.
+     * */
+    private boolean emitNextCompletedResult(Gatherer.Downstream<? super R> downstream) {
+        try {
+            this.submitDueRetries();
+            Future<Outcome<T, R>> future;
+            if (retries.isEmpty() || taskCount >= maxConcurrency) {
+                future = taskCount > 0 ? this.completionService.take() : null; // take() is blocking
+            } else {
+                // a slot is free, so we only wait until the next retry is due
+                future = this.completionService.poll(retries.peek().dueNanos() - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+            if (future == null) {
+                return true; // a retry became due, it is submitted on the next call
+            }
+            return this.handleCompleted(future, downstream);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private boolean handleCompleted(Future<Outcome<T, R>> future, Gatherer.Downstream<? super R> downstream) {
+        taskCount--;
+        return switch (future.state()) {
+            case SUCCESS -> this.handleOutcome(future.resultNow(), downstream);
+            case FAILED -> this.handleOutcome(new Outcome<>(null, null, future.exceptionNow()), downstream);
+            default -> true;
+        };
+    }
+
+    private boolean handleOutcome(Outcome<T, R> outcome, Gatherer.Downstream<? super R> downstream) {
+        if (outcome.error() == null) {
+            errors.recordSuccess();
+            return downstream.push(outcome.result());
+        }
+        var attempt = outcome.attempt();
+        if (attempt != null && retryPolicy.shouldRetry(attempt.number(), outcome.error())) {
+            var dueNanos = System.nanoTime() + retryPolicy.backoffNanos(attempt.number());
+            retries.add(new Retry<>(new Attempt<>(attempt.element(), attempt.number() + 1), dueNanos));
+            return true;
+        }
+        errors.recordError(outcome.error());
+        if (errors.isBudgetExceeded()) {
+            throw errors.toException("Error budget exceeded");
+        }
+        return true;
+    }
+
+    private void submitDueRetries() {
+        while (!retries.isEmpty() && taskCount < maxConcurrency && retries.peek().dueNanos() <= System.nanoTime()) {
+            this.submit(retries.poll().attempt());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.java.functional.programming.gatherers.concurrent;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Gatherer;
+
+/**
+ * Executes the given tasks concurrently using virtual threads, but does not start them in arrival order:
+ * up to lookahead elements are buffered, and whenever a concurrency slot frees up the element with the highest priority is started.
+ * So a premium request does not wait behind the bulk backfill which arrived before it, while the backfill still uses every spare slot.
+ * Results are emitted in the order they complete. Like ExecuteConcurrent it does NOT delay the errors, and it drains completed results on every integrate call.
+ *
+ * Aging prevents starvation: the priority of a buffered element grows by 1 for every agingInterval it waits,
+ * so a low priority element is started at the latest after (difference in priority x agingInterval).
+ * As every buffered element ages at the same rate, the order only depends on priority x agingInterval - arrival time,
+ * which does not change while the element waits, so a plain PriorityQueue keeps the buffer ordered.
+ *
+ * The state is bounded: at most maxConcurrency tasks in flight and lookahead buffered elements.
+ * Once the buffer is full, no more upstream elements are accepted until a slot frees up. Priorities are expected to be small numbers (e.g. a tier).
+ * */
+public class ExecuteConcurrentPrioritized<T, R> {
+
+    private record Buffered<T>(T element, long rank, long sequence) {
+    }
+
+    private int taskCount;
+    private long sequence;
+    private final int maxConcurrency;
+    private final int lookahead;
+    private final ToIntFunction<T> priorityFunction;
+    private final long agingNanos;
+    private final Function<T, R> mapperFunction;
+    private final ExecutorService executorService;
+    private final ExecutorCompletionService<R> completionService;
+    private final PriorityQueue<Buffered<T>> buffer; // highest rank first, then arrival order
+
+    public ExecuteConcurrentPrioritized(final int maxConcurrency,
+                                        final int lookahead,
+                                        final ToIntFunction<T> priorityFunction,
+                                        final Duration agingInterval,
+                                        final Function<T, R> mapperFunction,
+                                        final ExecutorService executorService) {
+        this.maxConcurrency = Preconditions.requirePositive(maxConcurrency, "maxConcurrency");
+        this.lookahead = Preconditions.requirePositive(lookahead, "lookahead");
+        this.priorityFunction = Objects.requireNonNull(priorityFunction, "priorityFunction");
+        this.agingNanos = Preconditions.requirePositive(agingInterval, "agingInterval").toNanos();
+        this.mapperFunction = Objects.requireNonNull(mapperFunction, "mapperFunction");
+        this.executorService = Objects.requireNonNull(executorService, "executorService");
+        this.completionService = new ExecutorCompletionService<>(executorService);
+        this.buffer = new PriorityQueue<>(Comparator.comparingLong((Buffered<T> buffered) -> buffered.rank()).reversed()
+                .thenComparingLong(Buffered::sequence));
+    }
+
+    boolean integrate(T element, Gatherer.Downstream<? super R> downstream) {
+        try {
+            long rank = priorityFunction.applyAsInt(element) * agingNanos - System.nanoTime();
+            buffer.add(new Buffered<>(element, rank, sequence++));
+            this.dispatch();
+            boolean shouldContinue = true;
+            // the buffer is full: a slot must free up, so the best buffered element can start, before we accept 1 more item from upstream.
+            while (shouldContinue && buffer.size() >= lookahead) {
+                shouldContinue = downstream.push(this.takeNextCompletedResult());
+                this.dispatch();
+            }
+            // opportunistic draining: push whatever completed in the meantime, poll() does not block.
+            Future<R> completed;
+            while (shouldContinue && (completed = this.completionService.poll()) != null) {
+                shouldContinue = downstream.push(this.resultOf(completed));
+                this.dispatch();
+            }
+            if (!shouldContinue) {
+                this.executorService.shutdownNow(); // downstream short-circuited (e.g. limit), cancel right away instead of waiting for finish
+            }
+            return shouldContinue;
+        } catch (RuntimeException | Error e) {
+            this.executorService.shutdownNow(); // a failing task or downstream ends the stream, finish will not be called
+            throw e;
+        }
+    }
+
+    void finish(Gatherer.Downstream<? super R> downstream) {
+        try {
+            boolean shouldContinue = !downstream.isRejecting();
+            while (taskCount > 0 && shouldContinue) {
+                shouldContinue = downstream.push(this.takeNextCompletedResult());
+                this.dispatch();
+            }
+        } finally {
+            this.executorService.shutdownNow(); // it will cancel if there are any pending tasks
+        }
+    }
+
+    /**
+     * starts the highest priority buffered elements while there are free slots
+     * */
+    private void dispatch() {
+        while (taskCount < maxConcurrency && !buffer.isEmpty()) {
+            var element = buffer.poll().element();
+            this.completionService.submit(() -> mapperFunction.apply(element));
+            taskCount++;
+        }
+    }
+
+    private R takeNextCompletedResult() {
+        try {
+            return this.resultOf(this.completionService.take()); // take() is blocking
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private R resultOf(Future<R> completed) {
+        taskCount--;
+        try {
+            return completed.get(); // completed, does not block
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.java.functional.programming.gatherers.concurrent;
+
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Gatherer;
+
+/**
+ * Executes the given tasks concurrently using virtual threads and emits results in the order they complete,
+ * but never lets an element drift more than reorderWindow positions away from its encounter index.
+ * It sits between Gatherers.mapConcurrent (fully ordered, head-of-line blocking) and ExecuteConcurrent (no ordering at all).
+ *
+ * How the window is enforced:
+ * head is the encounter index of the oldest element which has not been emitted yet.
+ * We only start the task for element n when n < head + reorderWindow. So everything that is in flight falls within [head, head + reorderWindow),
+ * and a completed result can be pushed downstream immediately, there is no reorder buffer to hold back results.
+ * The state is bounded by reorderWindow whatever the length of the stream:
+ * at most reorderWindow futures and a ring of reorderWindow "emitted" flags.
+ *
+ * If the element at head is slow, we stop accepting new elements once the window is used up (the bounded part of head-of-line blocking),
+ * but unlike mapConcurrent the results behind it are still emitted as soon as they are ready:
+ * every integrate call drains, without blocking, all results which already completed.
+ * reorderWindow = 1 gives the fully ordered sequential behaviour, reorderWindow >= maxConcurrency lets all slots work.
+ * */
+public class ExecuteConcurrentReorderWindow<T, R> {
+
+    private record Indexed<R>(long index, R result) {
+    }
+
+    private final int maxConcurrency;
+    private final int reorderWindow;
+    private final Function<T, R> mapperFunction;
+    private final ExecutorService executorService;
+    private final ExecutorCompletionService<Indexed<R>> completionService;
+    private final boolean[] emitted; // ring buffer: emitted[i % reorderWindow] for i in [head, head + reorderWindow)
+    private long head;
+    private long nextIndex;
+    private int taskCount;
+
+    public ExecuteConcurrentReorderWindow(final int maxConcurrency,
+                                          final int reorderWindow,
+                                          final Function<T, R> mapperFunction,
+                                          final ExecutorService executorService) {
+        this.maxConcurrency = Preconditions.requirePositive(maxConcurrency, "maxConcurrency");
+        this.reorderWindow = Preconditions.requirePositive(reorderWindow, "reorderWindow");
+        this.mapperFunction = Objects.requireNonNull(mapperFunction, "mapperFunction");
+        this.executorService = Objects.requireNonNull(executorService, "executorService");
+        this.completionService = new ExecutorCompletionService<>(executorService);
+        this.emitted = new boolean[reorderWindow];
+    }
+
+    boolean integrate(T element, Gatherer.Downstream<? super R> downstream) {
+        long index = nextIndex++;
+        this.completionService.submit(() -> new Indexed<>(index, mapperFunction.apply(element)));
+        taskCount++;
+        try {
+            boolean shouldContinue = true;
+            // we must emit before accepting the next element when all slots are busy, or when the next element would fall outside the window.
+            while (shouldContinue && (taskCount >= maxConcurrency || nextIndex >= head + reorderWindow)) {
+                shouldContinue = this.emitResult(this.takeNextCompletedResult(), downstream);
+            }
+            // opportunistic draining: push whatever completed in the meantime, poll() does not block.
+            Future<Indexed<R>> completed;
+            while (shouldContinue && (completed = this.completionService.poll()) != null) {
+                shouldContinue = this.emitResult(this.resultOf(completed), downstream);
+            }
+            if (!shouldContinue) {
+                this.executorService.shutdownNow(); // downstream short-circuited (e.g. limit), cancel right away instead of waiting for finish
+            }
+            return shouldContinue;
+        } catch (RuntimeException | Error e) {
+            this.executorService.shutdownNow(); // a failing task or downstream ends the stream, finish will not be called
+            throw e;
+        }
+    }
+
+    void finish(Gatherer.Downstream<? super R> downstream) {
+        try {
+            boolean shouldContinue = !downstream.isRejecting();
+            while (taskCount > 0 && shouldContinue) {
+                shouldContinue = this.emitResult(this.takeNextCompletedResult(), downstream);
+            }
+        } finally {
+            this.executorService.shutdownNow(); // it will cancel if there are any pending tasks
+        }
+    }
+
+    private boolean emitResult(Indexed<R> completed, Gatherer.Downstream<? super R> downstream) {
+        taskCount--;
+        emitted[(int) (completed.index() % reorderWindow)] = true;
+        while (head < nextIndex && emitted[(int) (head % reorderWindow)]) {
+            emitted[(int) (head % reorderWindow)] = false;
+            head++;
+        }
+        return downstream.push(completed.result());
+    }
+
+    private Indexed<R> takeNextCompletedResult() {
+        try {
+            return this.resultOf(this.completionService.take()); // take() is blocking
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Indexed<R> resultOf(Future<Indexed<R>> completed) {
+        try {
+            return completed.get(); // completed, does not block
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.java.functional.programming.gatherers.concurrent;
+
+import com.java.functional.programming.gatherers.concurrent.deadline.Deadline;
+import com.java.functional.programming.gatherers.concurrent.budget.FanOutBudget;
+import com.java.functional.programming.gatherers.concurrent.coalescing.SingleFlightFunction;
+import com.java.functional.programming.gatherers.concurrent.degraded.FallbackPolicy;
+import com.java.functional.programming.gatherers.concurrent.degraded.SubResult;
+import com.java.functional.programming.gatherers.concurrent.executorservice.SubTaskExecutor;
+import com.java.functional.programming.gatherers.concurrent.errors.ErrorBudget;
+import com.java.functional.programming.gatherers.concurrent.executorservice.SubTaskExecutorImpl;
+import com.java.functional.programming.gatherers.concurrent.hedging.HedgePolicy;
+import com.java.functional.programming.gatherers.concurrent.hedging.HedgedFunction;
+import com.java.functional.programming.gatherers.concurrent.limit.ConcurrencyLimit;
+import com.java.functional.programming.gatherers.concurrent.metrics.ConcurrencyMetrics;
+import com.java.functional.programming.gatherers.concurrent.ratelimit.RateLimiter;
+import com.java.functional.programming.gatherers.concurrent.retry.RetryPolicy;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Gatherer;
+
+/**
+ * Entry point for the concurrent gatherers backed by a virtual-thread-per-task ExecutorService.
+ * Every gatherer instance (i.e. every stream evaluation) gets its own executor, which is shut down when the stream completes, fails or short-circuits.
+ * Arguments are validated eagerly, when the gatherer is created.
+ * */
+public class GatherersUtilWithExecutorService {
+
+    public static final int DEFAULT_MAX_CONCURRENCY = 1000;
+
+    public static <T, R> Gatherer<T, ?, R> executeConcurrent(Function<T, R> mapperFunction) {
+        return executeConcurrent(DEFAULT_MAX_CONCURRENCY, mapperFunction);
+    }
+
+    public static <T, R> Gatherer<T, ?, R> executeConcurrent(int maxConcurrency, Function<T, R> mapperFunction) {
+        Preconditions.requirePositive(maxConcurrency, "maxConcurrency");
+        Objects.requireNonNull(mapperFunction, "mapperFunction");
+        return Gatherer.ofSequential(
+                () -> new ExecuteConcurrent<>(maxConcurrency, mapperFunction, Executors.newVirtualThreadPerTaskExecutor()),
+                Gatherer.Integrator.ofGreedy(ExecuteConcurrent::integrate),
+                ExecuteConcurrent::finish
+        );
+    }
+
+    /**
+     * Instrumented: in flight tasks, window saturation, task latency and queue wait are reported to the metrics,
+     * e.g. new PipelineMetrics("product-enrichment").registerMBean() to watch them in JConsole / VisualVM.
+     * */
+    public static <T, R> Gatherer<T, ?, R> executeConcurrent(int maxConcurrency, ConcurrencyMetrics metrics, Function<T, R> mapperFunction) {
+        Preconditions.requirePositive(maxConcurrency, "maxConcurrency");
+        Objects.requireNonNull(metrics, "metrics");
+        Objects.requireNonNull(mapperFunction, "mapperFunction");
+        return Gatherer.ofSequential(
+                () -> new ExecuteConcurrent<>(ConcurrencyLimit.fixed(maxConcurrency), null, metrics, mapperFunction, Executors.newVirtualThreadPerTaskExecutor()),
+                Gatherer.Integrator.ofGreedy(ExecuteConcurrent::integrate),
+                ExecuteConcurrent::finish
+        );
+    }
+
+    /**
+     * Per task deadline: a task that does not complete within taskTimeout is cancelled and fails the stream with a TimeoutException.
+     * */
+    public static <T, R> Gatherer<T, ?, R> executeConcurrent(int maxConcurrency, Duration taskTimeout, Function<T, R> mapperFunction) {
+        Preconditions.requirePositive(maxConcurrency, "maxConcurrency");
+        Preconditions.requirePositive(taskTimeout, "taskTimeout");
+        Objects.requireNonNull(mapperFunction, "mapperFunction");
+        return Gatherer.ofSequential(
+                () -> new ExecuteConcurrent<>(ConcurrencyLimit.fixed(maxConcurrency), taskTimeout, mapperFunction, Executors.newVirtualThreadPerTaskExecutor()),
+                Gatherer.Integrator.ofGreedy(ExecuteConcurrent::integrate),
+                ExecuteConcurrent::finish
+        );
+    }
+
+    /**
+     * Per task deadline plus hedged requests: once a call runs longer than the hedge percentile of the recent latencies, a duplicate call is sent and the first success wins.
+     * The taskTimeout covers both attempts. The latency history belongs to the returned gatherer, so reuse it for every stream that calls the same backend.
+     * */
+    public static <T, R> Gatherer<T, ?, R> executeConcurrentHedged(int maxConcurrency, Duration taskTimeout, HedgePolicy hedgePolicy, Function<T, R> mapperFunction) {
+        return executeConcurrent(maxConcurrency, taskTimeout, HedgedFunction.hedge(mapperFunction, hedgePolicy));
+    }
+
+    /**
+     * Coalesced: an element equal to one whose task is still in flight does not start a task of its own, it waits for that task and gets the same result.
+     * Both elements are still emitted and both hold a concurrency slot, only the backend sees one call.
+     * */
+    public static <T, R> Gatherer<T, ?, R> executeConcurrentCoalesced(int maxConcurrency, Function<T, R> mapperFunction) {
+        return executeConcurrent(maxConcurrency, SingleFlightFunction.coalesce(mapperFunction));
+    }
+
+    /**
+     * Rate limited: besides at most maxConcurrency in flight tasks, the tasks start no faster than the RateLimiter allows.
+     * A task waiting for a permit parks its virtual thread and holds its slot, so upstream is not pulled faster than the backend quota.
+     * For the SubTaskExecutor variants decorate the individual calls instead, e.g. rateLimiter.limit(RestClient::getRating).
+     * */
+    public static <T, R> Gatherer<T, ?, R> executeConcurrent(int maxConcurrency, RateLimiter rateLimiter, Function<T, R> mapperFunction) {
+        Objects.requireNonNull(rateLimiter, "rateLimiter");
+        return executeConcurrent(maxConcurrency, rateLimiter.limit(mapperFunction));
+    }
+
+    /**
+     * Adaptive concurrency: the number of in flight tasks follows the given limit (e.g. AimdConcurrencyLimit, VegasConcurrencyLimit),
+     * which grows and shrinks from the observed latency and error rate of the tasks.
+     * */
+    public static <T, R> Gatherer<T, ?, R> executeConcurrent(ConcurrencyLimit concurrencyLimit, Function<T, R> mapperFunction) {
+        Objects.requireNonNull(concurrencyLimit, "concurrencyLimit");
+        Objects.requireNonNull(mapperFunction, "mapperFunction");
+        return Gatherer.ofSequential(
+                () -> new ExecuteConcurrent<>(concurrencyLimit, mapperFunction, Executors.newVirtualThreadPerTaskExecutor()),
+                Gatherer.Integrator.ofGreedy(ExecuteConcurrent::integrate),
+                ExecuteConcurrent::finish
+        );
+    }
+
+    /**
+     * Non-blocking: for mappers which return a CompletionStage (e.g. an async HTTP client). No thread is started or parked per in flight element,
+     * at most maxConcurrency stages are in flight. See ExecuteAsync.
+     * */
+    public static <T, R> Gatherer<T, ?, R> executeAsync(int maxConcurrency, Function<T, ? extends CompletionStage<R>> mapperFunction) {
+        Preconditions.requirePositive(maxConcurrency, "maxConcurrency");
+        Objects.requireNonNull(mapperFunction, "mapperFunction");
+        return Gatherer.ofSequential(
+                () -> new ExecuteAsync<T, R>(maxConcurrency, mapperFunction),
+                Gatherer.Integrator.ofGreedy(ExecuteAsync::integrate),
+                ExecuteAsync::finish
+        );
+    }
+
+    /**
+     * Bounded reordering: results are emitted in the order they complete, but no element is emitted more than reorderWindow positions away from its encounter index.
+     * See ExecuteConcurrentReorderWindow.
+     * */
+    public static <T, R> Gatherer<T, ?, R> executeConcurrentReorderWindow(int maxConcurrency, int reorderWindow, Function<T, R> mapperFunction) {
+        Preconditions.requirePositive(maxConcurrency, "maxConcurrency");
+        Preconditions.requirePositive(reorderWindow, "reorderWindow");
+        Objects.requireNonNull(mapperFunction, "mapperFunction");
+        return Gatherer.ofSequential(
+                () -> new ExecuteConcurrentReorderWindow<>(maxConcurrency, reorderWindow, mapperFunction, Executors.newVirtualThreadPerTaskExecutor()),
+                Gatherer.Integrator.ofGreedy(ExecuteConcurrentReorderWindow::integrate),
+                ExecuteConcurrentReorderWindow::finish
+        );
+    }
+
+    /**
+     * Priority-aware: up to lookahead elements are buffered and a free slot always goes to the buffered element with the highest priority
+     * (a higher number is more urgent), which gains 1 for every agingInterval it waits. See ExecuteConcurrentPrioritized.
+     * */
+    public static <T, R> Gatherer<T, ?, R> executeConcurrentPrioritized(int maxConcurrency,
+                                                                        int lookahead,
+                                                                        ToIntFunction<T> priorityFunction,
+                                                                        Duration agingInterval,
+                                                                        Function<T, R> mapperFunction) {
+        Preconditions.requirePositive(maxConcurrency, "maxConcurrency");
+        Preconditions.requirePositive(lookahead, "lookahead");
+        Objects.requireNonNull(priorityFunction, "priorityFunction");
+        Preconditions.requirePositive(agingInterval, "agingInterval");
+        Objects.requireNonNull(mapperFunction, "mapperFunction");
+        return Gatherer.ofSequential(
+                () -> new ExecuteConcurrentPrioritized<>(maxConcurrency, lookahead, priorityFunction, agingInterval, mapperFunction, Executors.newVirtualThreadPerTaskExecutor()),
+                Gatherer.Integrator.ofGreedy(ExecuteConcurrentPrioritized::integrate),
+                ExecuteConcurrentPrioritized::finish
+        );
+    }
+
+    public static <T, R> Gatherer<T, ?, R> executeConcurrentDelayError(Function<T, R> mapperFunction) {
+        return executeConcurrentDelayError(DEFAULT_MAX_CONCURRENCY, mapperFunction);
+    }
+
+    public static <T, R> Gatherer<T, ?, R> executeConcurrentDelayError(int maxConcurrency, Function<T, R> mapperFunction) {
+        Preconditions.requirePositive(maxConcurrency, "maxConcurrency");
+        Objects.requireNonNull(mapperFunction, "mapperFunction");
+        return Gatherer.ofSequential(
+                () -> new ExecuteConcurrentDelayError<>(maxConcurrency, mapperFunction, Executors.newVirtualThreadPerTaskExecutor()),
+                Gatherer.Integrator.ofGreedy(ExecuteConcurrentDelayError::integrate),
+                ExecuteConcurrentDelayError::finish
+        );
+    }
+
+    /**
+     * Failed tasks are retried with exponential backoff and jitter, as long as the RetryPolicy classifies the failure as retryable.
+     * Only failures which are not retried, or still fail on the last attempt, are thrown at the end.
+     * */
+    public static <T, R> Gatherer<T, ?, R> executeConcurrentDelayError(int maxConcurrency, RetryPolicy retryPolicy, Function<T, R> mapperFunction) {
+        return executeConcurrentDelayError(maxConcurrency, retryPolicy, ErrorBudget.unlimited(), mapperFunction);
+    }
+
+    /**
+     * Same as above, but the stream is aborted (in-flight tasks cancelled) as soon as the failures exceed the ErrorBudget.
+     * Failures are thrown as a DelayedExecutionException, which counts every failure per exception type but only keeps a sample of the exceptions.
+     * */
+    public static <T, R> Gatherer<T, ?, R> executeConcurrentDelayError(int maxConcurrency, RetryPolicy retryPolicy, ErrorBudget errorBudget, Function<T, R> mapperFunction) {
+        Preconditions.requirePositive(maxConcurrency, "maxConcurrency");
+        Objects.requireNonNull(retryPolicy, "retryPolicy");
+        Objects.requireNonNull(errorBudget, "errorBudget");
+        Objects.requireNonNull(mapperFunction, "mapperFunction");
+        return Gatherer.ofSequential(
+                () -> new ExecuteConcurrentDelayError<>(maxConcurrency, retryPolicy, errorBudget, mapperFunction, Executors.newVirtualThreadPerTaskExecutor()),
+                Gatherer.Integrator.ofGreedy(ExecuteConcurrentDelayError::integrate),
+                ExecuteConcurrentDelayError::finish
+        );
+    }
+
+    /**
+     * Nested Concurrency: Perform concurrent tasks inside a concurrent context.
+     * T: Request
+     * R1: Response from Product Service
+     * R2: Response from Rating Service
+     * R: Aggregated Response to form complete response ProductAggregate.
+     * */
+    public static <T, R1, R2, R> Gatherer<T, ?, R> aggregateConcurrent(int maxConcurrency,
+                                                                       Function<T, R1> mapperFunction1,
+                                                                       Function<T, R2> mapperFunction2,
+                                                                       BiFunction<R1, R2, R> biFunction) {
+        Preconditions.requirePositive(maxConcurrency, "maxConcurrency");
+        Objects.requireNonNull(mapperFunction1, "mapperFunction1");
+        Objects.requireNonNull(mapperFunction2, "mapperFunction2");
+        Objects.requireNonNull(biFunction, "biFunction");
+        return Gatherer.ofSequential(
+                () -> {
+                    var executor = Executors.newVirtualThreadPerTaskExecutor();
+                    Function<T, R> function = t -> {
+                        var future1 = executor.submit(Deadline.propagate(() -> mapperFunction1.apply(t)));
+                        var future2 = executor.submit(Deadline.propagate(() -> mapperFunction2.apply(t)));
+                        try {
+                            return biFunction.apply(getResult(future1), getResult(future2));
+                        } finally {
+                            future2.cancel(true); // no-op when completed, cancels the sibling when future1 failed
+                        }
+                    };
+                    return new ExecuteConcurrent<>(maxConcurrency, function, executor);
+                },
+                Gatherer.Integrator.ofGreedy(ExecuteConcurrent::integrate),
+                ExecuteConcurrent::finish
+        );
+    }
+
+    /**
+     * Degraded mode of aggregateConcurrent: every sub-result has its own timeout and fallback value (FallbackPolicy).
+     * A sub-result which fails or times out is cancelled and handed to the biFunction as a missing SubResult holding the fallback,
+     * so the element is still emitted, flagged by the biFunction, instead of failing the element and with it the stream.
+     * The element waits at most the longer of the two timeouts.
+     * */
+    public static <T, R1, R2, R> Gatherer<T, ?, R> aggregateConcurrentDegraded(int maxConcurrency,
+                                                                               Function<T, R1> mapperFunction1,
+                                                                               FallbackPolicy<R1> fallbackPolicy1,
+                                                                               Function<T, R2> mapperFunction2,
+                                                                               FallbackPolicy<R2> fallbackPolicy2,
+                                                                               BiFunction<SubResult<R1>, SubResult<R2>, R> biFunction) {
+        Preconditions.requirePositive(maxConcurrency, "maxConcurrency");
+        Objects.requireNonNull(mapperFunction1, "mapperFunction1");
+        Objects.requireNonNull(fallbackPolicy1, "fallbackPolicy1");
+        Objects.requireNonNull(mapperFunction2, "mapperFunction2");
+        Objects.requireNonNull(fallbackPolicy2, "fallbackPolicy2");
+        Objects.requireNonNull(biFunction, "biFunction");
+        return Gatherer.ofSequential(
+                () -> {
+                    var executor = Executors.newVirtualThreadPerTaskExecutor();
+                    Function<T, R> function = t -> {
+                        long submittedAt = System.nanoTime();
+                        var future1 = executor.submit(Deadline.propagate(() -> mapperFunction1.apply(t)));
+                        var future2 = executor.submit(Deadline.propagate(() -> mapperFunction2.apply(t)));
+                        try {
+                            return biFunction.apply(fallbackPolicy1.resultOf(future1, submittedAt), fallbackPolicy2.resultOf(future2, submittedAt));
+                        } finally {
+                            future2.cancel(true); // no-op when completed, cancels the sibling when waiting for future1 was interrupted
+                        }
+                    };
+                    return new ExecuteConcurrent<>(maxConcurrency, function, executor);
+                },
+                Gatherer.Integrator.ofGreedy(ExecuteConcurrent::integrate),
+                ExecuteConcurrent::finish
+        );
+    }
+
+    public static <T, R> Gatherer<T, ?, R> aggregateConcurrent(int maxConcurrency, BiFunction<T, SubTaskExecutor, R> biFunction) {
+        Preconditions.requirePositive(maxConcurrency, "maxConcurrency");
+        Objects.requireNonNull(biFunction, "biFunction");
+        return Gatherer.ofSequential(
+                () -> {
+                    var executor = Executors.newVirtualThreadPerTaskExecutor();
+                    var subTaskExecutor = new SubTaskExecutorImpl(executor);
+                    Function<T, R> function = t -> biFunction.apply(t, subTaskExecutor);
+                    return new ExecuteConcurrent<>(maxConcurrency, function, executor);
+                },
+                Gatherer.Integrator.ofGreedy(ExecuteConcurrent::integrate),
+                ExecuteConcurrent::finish
+        );
+    }
+
+    /**
+     * Same, but the total number of in-flight subtasks of all elements is bounded by the FanOutBudget, not only the number of elements.
+     * Every element reserves a permit of the budget while it runs, its subtasks use that one or shared permits (see FanOutBudget).
+     * */
+    public static <T, R> Gatherer<T, ?, R> aggregateConcurrent(int maxConcurrency, FanOutBudget budget, BiFunction<T, SubTaskExecutor, R> biFunction) {
+        Preconditions.requirePositive(maxConcurrency, "maxConcurrency");
+        Objects.requireNonNull(budget, "budget");
+        Objects.requireNonNull(biFunction, "biFunction");
+        return Gatherer.ofSequential(
+                () -> {
+                    var executor = Executors.newVirtualThreadPerTaskExecutor();
+                    Function<T, R> function = t -> {
+                        try (var lease = budget.reserve()) {
+                            return biFunction.apply(t, new SubTaskExecutorImpl(executor, lease));
+                        }
+                    };
+                    return new ExecuteConcurrent<>(maxConcurrency, function, executor);
+                },
+                Gatherer.Integrator.ofGreedy(ExecuteConcurrent::integrate),
+                ExecuteConcurrent::finish
+        );
+    }
+
+    public static <T, R> Gatherer<T, ?, R> aggregateConcurrent(BiFunction<T, SubTaskExecutor, R> biFunction) {
+        return aggregateConcurrent(DEFAULT_MAX_CONCURRENCY, biFunction);
+    }
+
+    private static <R> R getResult(Future<R> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
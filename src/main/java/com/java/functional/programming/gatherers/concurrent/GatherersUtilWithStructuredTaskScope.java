@@ -1,9 +1,11 @@
-package com.java.functional.programming.streamgatherers.concurrency.util;
+package com.java.functional.programming.gatherers.concurrent;
 
-import com.java.functional.programming.streamgatherers.concurrency.util.structuredtaskscope.SubTaskExecutor;
-import com.java.functional.programming.streamgatherers.concurrency.util.structuredtaskscope.SubTaskExecutorImpl;
+import com.java.functional.programming.gatherers.concurrent.deadline.Deadline;
+import com.java.functional.programming.gatherers.concurrent.structuredtaskscope.SubTaskExecutor;
+import com.java.functional.programming.gatherers.concurrent.structuredtaskscope.SubTaskExecutorImpl;
 
 import java.time.Duration;
+import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.StructuredTaskScope;
@@ -11,6 +13,11 @@ import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Gatherer;
 
+/**
+ * Entry point for the concurrent gatherers whose per-element subtasks run inside a StructuredTaskScope.
+ * The outer (per-element) concurrency is handled by ExecuteConcurrent; every element opens and closes its own scope,
+ * so subtasks never outlive the element that forked them.
+ * */
 public class GatherersUtilWithStructuredTaskScope {
 
     /**
@@ -24,6 +31,10 @@ public class GatherersUtilWithStructuredTaskScope {
                                                                        Function<T, R1> mapperFunction1,
                                                                        Function<T, R2> mapperFunction2,
                                                                        BiFunction<R1, R2, R> biFunction) {
+        Preconditions.requirePositive(maxConcurrency, "maxConcurrency");
+        Objects.requireNonNull(mapperFunction1, "mapperFunction1");
+        Objects.requireNonNull(mapperFunction2, "mapperFunction2");
+        Objects.requireNonNull(biFunction, "biFunction");
         return Gatherer.ofSequential(
                 () -> {
                     var executor = Executors.newVirtualThreadPerTaskExecutor();
@@ -45,20 +56,23 @@ public class GatherersUtilWithStructuredTaskScope {
     private static void joinAndHandle(StructuredTaskScope<Object, Void> scope) {
         try {
             scope.join();
-        } catch (Exception e) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new RuntimeException(e);
+        } catch (StructuredTaskScope.FailedException e) {
+            throw (e.getCause() instanceof RuntimeException re) ? re : new RuntimeException(e.getCause());
         }
     }
 
     public static <T, R> Gatherer<T, ?, R> aggregateConcurrent(int maxConcurrency, BiFunction<T, SubTaskExecutor, R> biFunction) {
+        Preconditions.requirePositive(maxConcurrency, "maxConcurrency");
+        Objects.requireNonNull(biFunction, "biFunction");
         return Gatherer.ofSequential(
                 () -> {
                     ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
                     Function<T, R> function = t -> {
                         try (SubTaskExecutor subTaskExecutor = SubTaskExecutorImpl.openAwaitAllSuccessfulOrThrow()) {
                             return biFunction.apply(t, subTaskExecutor);
-                        } catch (Exception e) {
-                            throw new RuntimeException(e);
                         }
                     };
                     return new ExecuteConcurrent<>(maxConcurrency, function, executorService);
@@ -68,19 +82,24 @@ public class GatherersUtilWithStructuredTaskScope {
         );
     }
 
+    /**
+     * Every element gets a Deadline of timeout (capped by the caller's deadline), so its subtasks and anything they call
+     * see the same, shrinking, budget instead of restarting the clock at every level.
+     * */
     public static <T, R> Gatherer<T, ?, R> aggregateConcurrentWithTimeout(int maxConcurrency,
                                                                           BiFunction<T, SubTaskExecutor, R> biFunction,
                                                                           Duration timeout) {
+        Preconditions.requirePositive(maxConcurrency, "maxConcurrency");
+        Objects.requireNonNull(biFunction, "biFunction");
+        Preconditions.requirePositive(timeout, "timeout");
         return Gatherer.ofSequential(
                 () -> {
                     ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
-                    Function<T, R> function = t -> {
+                    Function<T, R> function = t -> Deadline.callWithin(timeout, () -> {
                         try (SubTaskExecutor subTaskExecutor = SubTaskExecutorImpl.openAwaitAllSuccessfulOrThrow(timeout)) {
                             return biFunction.apply(t, subTaskExecutor);
-                        } catch (Exception e) {
-                            throw new RuntimeException(e);
                         }
-                    };
+                    });
                     return new ExecuteConcurrent<>(maxConcurrency, function, executorService);
                 },
                 Gatherer.Integrator.ofGreedy(ExecuteConcurrent::integrate),
@@ -0,0 +1,29 @@
+package com.java.functional.programming.gatherers.concurrent;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Argument checks shared by the concurrent gatherers, so that a misconfigured gatherer fails where it is built,
+ * not lazily when the stream is consumed.
+ * */
+public final class Preconditions {
+
+    private Preconditions() {
+    }
+
+    public static int requirePositive(int value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be > 0, but was " + value);
+        }
+        return value;
+    }
+
+    public static Duration requirePositive(Duration value, String name) {
+        Objects.requireNonNull(value, name);
+        if (value.isNegative() || value.isZero()) {
+            throw new IllegalArgumentException(name + " must be > 0, but was " + value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,128 @@
+package com.java.functional.programming.gatherers.concurrent.batching;
+
+import com.java.functional.programming.gatherers.concurrent.Preconditions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * DataLoader style micro-batching: single key lookups from many concurrent (virtual) threads are collected into one bulk call.
+ * A batch is sent as soon as it holds maxBatchSize distinct keys, or when linger has passed since its first key was added, whichever comes first.
+ * Every caller gets its own value out of the bulk response; callers asking for the same key within one batch share it.
+ *
+ * The bulk call runs on its own virtual thread, so neither the caller that fills the batch nor the linger timer is blocked by it.
+ * A failed bulk call fails every caller of the batch, a key missing from the response fails its callers with a NoSuchElementException.
+ *
+ * Use it as the mapper of the concurrent gatherers, the concurrency of the gatherer is what fills the batches:
+ *   var products = new BatchLoader<>(ids -> productService.getProducts(ids), 50, Duration.ofMillis(5));
+ *   ids.stream().gather(executeConcurrent(1000, products))
+ * */
+public class BatchLoader<K, V> implements Function<K, V> {
+
+    private final Function<List<K>, Map<K, V>> bulkFunction;
+    private final int maxBatchSize;
+    private final Duration linger;
+    private Map<K, CompletableFuture<V>> batch = new LinkedHashMap<>(); // guarded by this
+    private long batchCount; // guarded by this
+
+    public BatchLoader(Function<List<K>, Map<K, V>> bulkFunction, int maxBatchSize, Duration linger) {
+        this.bulkFunction = Objects.requireNonNull(bulkFunction, "bulkFunction");
+        this.maxBatchSize = Preconditions.requirePositive(maxBatchSize, "maxBatchSize");
+        this.linger = Preconditions.requirePositive(linger, "linger");
+    }
+
+    /**
+     * blocks (parks) until the batch containing the key has been loaded.
+     * */
+    @Override
+    public V apply(K key) {
+        try {
+            return this.load(key).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw (e.getCause() instanceof RuntimeException re) ? re : new RuntimeException(e.getCause());
+        }
+    }
+
+    public CompletableFuture<V> load(K key) {
+        Map<K, CompletableFuture<V>> full = null;
+        CompletableFuture<V> value;
+        synchronized (this) {
+            value = batch.get(key);
+            if (value == null) {
+                value = new CompletableFuture<>();
+                batch.put(key, value);
+                if (batch.size() == 1) {
+                    var lingering = batch;
+                    Thread.ofVirtual().start(() -> this.flushAfterLinger(lingering));
+                }
+                if (batch.size() >= maxBatchSize) {
+                    full = this.takeBatch();
+                }
+            }
+        }
+        if (full != null) {
+            this.dispatch(full);
+        }
+        return value;
+    }
+
+    /**
+     * number of bulk calls sent so far
+     * */
+    public synchronized long getBatchCount() {
+        return batchCount;
+    }
+
+    private void flushAfterLinger(Map<K, CompletableFuture<V>> lingering) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(linger.toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Map<K, CompletableFuture<V>> due = null;
+        synchronized (this) {
+            if (batch == lingering) { // otherwise it was sent because it was full
+                due = this.takeBatch();
+            }
+        }
+        if (due != null) {
+            this.dispatch(due);
+        }
+    }
+
+    private Map<K, CompletableFuture<V>> takeBatch() {
+        var taken = batch;
+        batch = new LinkedHashMap<>();
+        batchCount++;
+        return taken;
+    }
+
+    private void dispatch(Map<K, CompletableFuture<V>> taken) {
+        Thread.ofVirtual().start(() -> {
+            try {
+                Map<K, V> values = bulkFunction.apply(new ArrayList<>(taken.keySet()));
+                taken.forEach((key, value) -> {
+                    if (values.containsKey(key)) {
+                        value.complete(values.get(key));
+                    } else {
+                        value.completeExceptionally(new NoSuchElementException("no value for key " + key));
+                    }
+                });
+            } catch (Throwable e) {
+                taken.values().forEach(value -> value.completeExceptionally(e));
+            }
+        });
+    }
+}
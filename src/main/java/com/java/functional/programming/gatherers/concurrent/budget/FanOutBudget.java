@@ -0,0 +1,170 @@
+package com.java.functional.programming.gatherers.concurrent.budget;
+
+import com.java.functional.programming.gatherers.concurrent.Preconditions;
+
+import java.util.LinkedHashSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One budget for the total number of in-flight backend calls of a nested (outer element x subtasks) pipeline, a hierarchical semaphore.
+ * It may be shared by several gatherers, so that capacity planning against a backend comes down to this one number.
+ *
+ * Every outer element reserves one permit (reserve()) for as long as it runs. Its subtasks first use that reserved permit,
+ * and only when it is busy take a shared one. So an admitted element can always make progress, one subtask at a time,
+ * and elements waiting for their subtasks can never deadlock by holding all the permits.
+ * Shared permits are handed out first come first served to outer elements and subtasks alike:
+ * new elements are not starved by the fan-out of the elements already running, nor the other way around.
+ *
+ *   var budget = new FanOutBudget(200);
+ *   ids.stream().gather(aggregateConcurrent(50, budget, (id, subTaskExecutor) -> ...))
+ * */
+public final class FanOutBudget {
+
+    private final int permits;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashSet<Condition> waiters = new LinkedHashSet<>(); // in arrival order, only the first one may take a shared permit
+    private int available;
+
+    public FanOutBudget(int permits) {
+        this.permits = Preconditions.requirePositive(permits, "permits");
+        this.available = permits;
+    }
+
+    /**
+     * reserves the permit of an outer element, waits until one is free. The Lease must be closed when the element is done.
+     * */
+    public Lease reserve() {
+        this.acquire(null);
+        return new Lease();
+    }
+
+    public int getPermits() {
+        return permits;
+    }
+
+    /**
+     * permits which are neither reserved by an element nor used by a subtask
+     * */
+    public int getAvailablePermits() {
+        lock.lock();
+        try {
+            return available;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return true when the reserved permit of the lease was taken, false for a shared permit
+     * */
+    private boolean acquire(Lease lease) {
+        lock.lock();
+        var waiter = lock.newCondition(); // each waiter is woken on its own, a release wakes only the one which can use the permit
+        try {
+            waiters.addLast(waiter);
+            if (lease != null) {
+                lease.waiters.addLast(waiter);
+            }
+            while (true) {
+                if (lease != null && !lease.closed && !lease.reservedInUse) {
+                    lease.reservedInUse = true;
+                    return true;
+                }
+                if (available > 0 && waiters.getFirst() == waiter) {
+                    available--;
+                    return false;
+                }
+                waiter.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            waiters.remove(waiter);
+            if (lease != null) {
+                lease.waiters.remove(waiter);
+            }
+            this.signalNext(lease); // the next waiter may be first now, or may get a permit this one was woken for
+            lock.unlock();
+        }
+    }
+
+    /**
+     * wakes the first waiter of the lease if its reserved permit is free, and the first waiter overall if a shared permit is free.
+     * */
+    private void signalNext(Lease lease) {
+        if (lease != null && !lease.closed && !lease.reservedInUse && !lease.waiters.isEmpty()) {
+            lease.waiters.getFirst().signal();
+        }
+        if (available > 0 && !waiters.isEmpty()) {
+            waiters.getFirst().signal();
+        }
+    }
+
+    private void release(Lease lease, boolean reserved) {
+        lock.lock();
+        try {
+            if (reserved) {
+                lease.reservedInUse = false;
+                if (lease.closed) {
+                    available++; // the element is done, its permit was only kept for this subtask
+                }
+            } else {
+                available++;
+            }
+            this.signalNext(lease);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The permit reserved by one outer element, and the entry point for the permits of its subtasks. Guarded by the lock of the budget.
+     * */
+    public final class Lease implements AutoCloseable {
+
+        private final LinkedHashSet<Condition> waiters = new LinkedHashSet<>(); // the subtasks waiting for a permit, in arrival order
+        private boolean reservedInUse;
+        private boolean closed;
+
+        private Lease() {
+        }
+
+        /**
+         * the task holds a permit while it runs: the reserved one of this lease if it is free, otherwise a shared one.
+         * It waits for the permit in the thread running it, so submitting it does not block.
+         * */
+        public <V> Callable<V> bound(Callable<V> task) {
+            return () -> {
+                boolean reserved = acquire(this);
+                try {
+                    return task.call();
+                } finally {
+                    release(this, reserved);
+                }
+            };
+        }
+
+        /**
+         * gives the reserved permit back, or, while a subtask is still using it, as soon as that one completes.
+         * */
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                if (!reservedInUse) {
+                    available++;
+                    signalNext(null);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.java.functional.programming.gatherers.concurrent.bulkhead;
+
+import com.java.functional.programming.gatherers.concurrent.deadline.Deadline;
+import com.java.functional.programming.gatherers.concurrent.deadline.DeadlineExceededException;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Isolates the calls to one backend: at most maxConcurrentCalls of them run at the same time and at most maxQueuedCalls wait for a slot.
+ * Further calls fail fast with a BulkheadFullException, so a slow backend keeps a bounded number of threads busy
+ * instead of taking over the concurrency shared with the other backends.
+ *
+ * Assign a bulkhead per mapper or per subtask, the fallback stays with the caller:
+ *   aggregateConcurrentDegraded(10, products.protect(RestClient::getProduct), ..., ratings.protect(RestClient::getRating), ..., ...)
+ *   subTaskExecutor.execute(ratings, () -> RestClient.getRating(id)).onError(e -> 0)
+ *
+ * Within a Deadline a call waits for a slot at most until the deadline. Keep one instance per backend and share it between every pipeline calling that backend.
+ * */
+public class Bulkhead {
+
+    private final String name;
+    private final BulkheadPolicy policy;
+    private final Semaphore slots;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public Bulkhead(String name, BulkheadPolicy policy) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.policy = Objects.requireNonNull(policy, "policy");
+        this.slots = new Semaphore(policy.maxConcurrentCalls(), true);
+    }
+
+    /**
+     * Runs the callable in a slot of this bulkhead, waiting in its queue when all slots are busy.
+     * Throws a BulkheadFullException when the queue is full as well. Checked exceptions of the callable are wrapped in a RuntimeException.
+     * */
+    public <V> V call(Callable<V> callable) {
+        Objects.requireNonNull(callable, "callable");
+        this.acquireSlot();
+        try {
+            return callable.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            slots.release();
+        }
+    }
+
+    /**
+     * the callable, isolated by this bulkhead. Meant for SubTaskExecutor.execute(...).
+     * */
+    public <V> Callable<V> protect(Callable<V> callable) {
+        Objects.requireNonNull(callable, "callable");
+        return () -> this.call(callable);
+    }
+
+    /**
+     * the function, isolated by this bulkhead. Meant as the mapper of the concurrent gatherers.
+     * */
+    public <T, R> Function<T, R> protect(Function<T, R> function) {
+        Objects.requireNonNull(function, "function");
+        return t -> this.call(() -> function.apply(t));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BulkheadPolicy getPolicy() {
+        return policy;
+    }
+
+    public int getActiveCalls() {
+        return policy.maxConcurrentCalls() - slots.availablePermits();
+    }
+
+    public int getQueuedCalls() {
+        return queued.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    private void acquireSlot() {
+        if (slots.tryAcquire()) {
+            return;
+        }
+        if (queued.incrementAndGet() > policy.maxQueuedCalls()) {
+            queued.decrementAndGet();
+            rejectedCount.incrementAndGet();
+            throw new BulkheadFullException(name);
+        }
+        try {
+            var deadline = Deadline.current();
+            if (deadline.isEmpty()) {
+                slots.acquire();
+            } else if (!slots.tryAcquire(deadline.get().remaining().toNanos(), TimeUnit.NANOSECONDS)) {
+                rejectedCount.incrementAndGet();
+                throw new DeadlineExceededException("deadline exceeded while waiting in bulkhead '" + name + "'");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Bulkhead{name=" + name + ", active=" + getActiveCalls() + ", queued=" + getQueuedCalls() + ", rejected=" + getRejectedCount() + "}";
+    }
+}
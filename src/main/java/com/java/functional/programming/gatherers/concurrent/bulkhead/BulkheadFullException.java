@@ -0,0 +1,11 @@
+package com.java.functional.programming.gatherers.concurrent.bulkhead;
+
+/**
+ * Thrown instead of calling the backend when its bulkhead has no free slot and its queue is full.
+ * */
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String name) {
+        super("Bulkhead '" + name + "' is full");
+    }
+}
@@ -0,0 +1,21 @@
+package com.java.functional.programming.gatherers.concurrent.bulkhead;
+
+import com.java.functional.programming.gatherers.concurrent.Preconditions;
+
+/**
+ * maxConcurrentCalls: calls running against the backend at the same time.
+ * maxQueuedCalls:     calls waiting for one of those slots. Any call beyond that is rejected right away, 0 means no waiting at all.
+ * */
+public record BulkheadPolicy(int maxConcurrentCalls, int maxQueuedCalls) {
+
+    public BulkheadPolicy {
+        Preconditions.requirePositive(maxConcurrentCalls, "maxConcurrentCalls");
+        if (maxQueuedCalls < 0) {
+            throw new IllegalArgumentException("maxQueuedCalls must be >= 0, but was " + maxQueuedCalls);
+        }
+    }
+
+    public static BulkheadPolicy of(int maxConcurrentCalls, int maxQueuedCalls) {
+        return new BulkheadPolicy(maxConcurrentCalls, maxQueuedCalls);
+    }
+}
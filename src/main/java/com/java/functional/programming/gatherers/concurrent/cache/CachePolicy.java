@@ -0,0 +1,33 @@
+package com.java.functional.programming.gatherers.concurrent.cache;
+
+import com.java.functional.programming.gatherers.concurrent.Preconditions;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Bounds of a CachedFunction.
+ * maximumSize:  number of entries kept, the least recently used entry is evicted beyond it.
+ * timeToLive:   an entry expires this long after it was loaded, an expired entry is loaded again (synchronously, by the next caller).
+ * refreshAhead: an entry read within this duration before it expires is reloaded in the background, while callers keep getting the current value.
+ *               Duration.ZERO disables refresh-ahead. Must be shorter than timeToLive.
+ * */
+public record CachePolicy(int maximumSize, Duration timeToLive, Duration refreshAhead) {
+
+    public CachePolicy {
+        Preconditions.requirePositive(maximumSize, "maximumSize");
+        Preconditions.requirePositive(timeToLive, "timeToLive");
+        Objects.requireNonNull(refreshAhead, "refreshAhead");
+        if (refreshAhead.isNegative() || refreshAhead.compareTo(timeToLive) >= 0) {
+            throw new IllegalArgumentException("refreshAhead must be within [0, timeToLive), but was " + refreshAhead);
+        }
+    }
+
+    public static CachePolicy of(int maximumSize, Duration timeToLive) {
+        return new CachePolicy(maximumSize, timeToLive, Duration.ZERO);
+    }
+
+    public CachePolicy withRefreshAhead(Duration refreshAhead) {
+        return new CachePolicy(maximumSize, timeToLive, refreshAhead);
+    }
+}
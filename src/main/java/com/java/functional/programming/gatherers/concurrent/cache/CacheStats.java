@@ -0,0 +1,16 @@
+package com.java.functional.programming.gatherers.concurrent.cache;
+
+/**
+ * Snapshot of the counters of a CachedFunction.
+ * hitCount:      calls served from the cache, including callers that waited for a load already in progress.
+ * missCount:     calls that had to load the value.
+ * evictionCount: entries removed because the cache was full or the entry expired.
+ * refreshCount:  background reloads started by refresh-ahead.
+ * */
+public record CacheStats(long hitCount, long missCount, long evictionCount, long refreshCount) {
+
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+}
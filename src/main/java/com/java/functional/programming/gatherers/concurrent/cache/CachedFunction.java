@@ -0,0 +1,156 @@
+package com.java.functional.programming.gatherers.concurrent.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Decorates a (blocking, I/O bound) lookup with a bounded LRU cache whose entries expire after the CachePolicy timeToLive.
+ *
+ * Stampede protection: the first caller for a missing key loads it, every other caller for that key waits for the same load
+ * instead of sending its own call. A failed load is not cached, the waiting callers get the exception and the next caller tries again.
+ * Refresh-ahead: an entry read shortly before it expires is reloaded on a virtual thread, the readers keep getting the current value meanwhile,
+ * so a frequently read key never expires and nobody waits for its reload.
+ *
+ * The lock is only held for the bookkeeping, never for a load. Keep one instance per backend, e.g.
+ *   CachedFunction.cache(RestClient::getProduct, CachePolicy.of(10_000, Duration.ofMinutes(1)))
+ * */
+public class CachedFunction<K, V> implements Function<K, V> {
+
+    private static final class Node<V> {
+        private final CompletableFuture<V> value = new CompletableFuture<>();
+        private long refreshAtNanos; // guarded by the lock, like everything below
+        private long expiresAtNanos;
+        private boolean refreshing;
+    }
+
+    private final Function<K, V> loader;
+    private final CachePolicy policy;
+    private final boolean refreshAhead;
+    private final Map<K, Node<V>> entries;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long refreshCount;
+
+    public CachedFunction(Function<K, V> loader, CachePolicy policy) {
+        this.loader = Objects.requireNonNull(loader, "loader");
+        this.policy = Objects.requireNonNull(policy, "policy");
+        this.refreshAhead = !policy.refreshAhead().isZero();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) { // access order, the eldest entry is the least recently used
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Node<V>> eldest) {
+                if (size() > policy.maximumSize()) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static <K, V> CachedFunction<K, V> cache(Function<K, V> loader, CachePolicy policy) {
+        return new CachedFunction<>(loader, policy);
+    }
+
+    @Override
+    public V apply(K key) {
+        Node<V> node;
+        boolean load = false;
+        boolean refresh = false;
+        synchronized (this) {
+            long now = System.nanoTime();
+            node = entries.get(key);
+            if (node != null && node.value.isDone() && now - node.expiresAtNanos >= 0) {
+                entries.remove(key);
+                evictionCount++;
+                node = null;
+            }
+            if (node == null) {
+                node = new Node<>();
+                entries.put(key, node);
+                missCount++;
+                load = true;
+            } else {
+                hitCount++;
+                if (refreshAhead && node.value.isDone() && !node.refreshing && now - node.refreshAtNanos >= 0) {
+                    node.refreshing = true;
+                    refreshCount++;
+                    refresh = true;
+                }
+            }
+        }
+        if (load) {
+            return this.load(key, node);
+        }
+        if (refresh) {
+            var refreshed = node;
+            Thread.ofVirtual().start(() -> this.refresh(key, refreshed));
+        }
+        return this.await(node.value);
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hitCount, missCount, evictionCount, refreshCount);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private V load(K key, Node<V> node) {
+        try {
+            V value = loader.apply(key);
+            synchronized (this) {
+                this.setExpiry(node);
+            }
+            node.value.complete(value);
+            return value;
+        } catch (Throwable e) {
+            synchronized (this) {
+                entries.remove(key, node); // not cached, the next caller loads again
+            }
+            node.value.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * reloads the value of node. The result only replaces that node: when it was evicted, expired or replaced by a newer load meanwhile, it is dropped.
+     * */
+    private void refresh(K key, Node<V> node) {
+        var reloaded = new Node<V>();
+        try {
+            V value = loader.apply(key);
+            reloaded.value.complete(value);
+            synchronized (this) {
+                this.setExpiry(reloaded);
+                entries.replace(key, node, reloaded);
+            }
+        } catch (Throwable e) {
+            synchronized (this) {
+                node.refreshing = false; // the current value is served until it expires, a later read retries the refresh
+            }
+        }
+    }
+
+    private void setExpiry(Node<V> node) {
+        long now = System.nanoTime();
+        node.expiresAtNanos = now + policy.timeToLive().toNanos();
+        node.refreshAtNanos = node.expiresAtNanos - policy.refreshAhead().toNanos();
+    }
+
+    private V await(CompletableFuture<V> value) {
+        try {
+            return value.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw (e.getCause() instanceof RuntimeException re) ? re : new RuntimeException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.java.functional.programming.gatherers.concurrent.circuitbreaker;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+/**
+ * Stops calling a backend that keeps failing, so the calls fail fast instead of holding virtual threads and concurrency slots until they time out.
+ *  - CLOSED:    calls go through, the outcome of the last slidingWindowSize calls is recorded.
+ *               Once the failure rate reaches the threshold, the circuit opens.
+ *  - OPEN:      calls are rejected with a CircuitOpenException without calling the backend, for openDuration.
+ *  - HALF_OPEN: a few trial calls go through (the rest is still rejected). If all of them succeed the circuit closes, if one fails it opens again.
+ *
+ * Only the decorated call is protected, so the fallback stays with the caller, e.g. with the SubTaskExecutor:
+ *   subTaskExecutor.execute(ratingBreaker.protect(() -> RestClient.getRating(id))).onError(e -> 0)
+ *
+ * A call whose thread was interrupted (cancelled by its scope or gatherer) is not recorded, it says nothing about the backend.
+ * Keep one instance per backend and share it between every pipeline calling that backend.
+ * */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final CircuitBreakerPolicy policy;
+    private final boolean[] window; // true: failed
+    private int windowIndex;
+    private int windowCount;
+    private int failureCount;
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+    private long generation; // incremented on every state change, so a call started in an earlier state is not counted in the current one
+
+    public CircuitBreaker(String name, CircuitBreakerPolicy policy) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.policy = Objects.requireNonNull(policy, "policy");
+        this.window = new boolean[policy.slidingWindowSize()];
+    }
+
+    /**
+     * Runs the callable if the circuit allows it, otherwise throws a CircuitOpenException.
+     * Checked exceptions of the callable are wrapped in a RuntimeException.
+     * */
+    public <V> V call(Callable<V> callable) {
+        Objects.requireNonNull(callable, "callable");
+        long permit = this.acquirePermission();
+        boolean failed = true;
+        try {
+            V result = callable.call();
+            failed = false;
+            return result;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            this.record(permit, failed, failed && Thread.currentThread().isInterrupted());
+        }
+    }
+
+    /**
+     * the callable, protected by this circuit breaker. Meant for SubTaskExecutor.execute(...).
+     * */
+    public <V> Callable<V> protect(Callable<V> callable) {
+        Objects.requireNonNull(callable, "callable");
+        return () -> this.call(callable);
+    }
+
+    /**
+     * the function, protected by this circuit breaker. Meant as the mapper of the concurrent gatherers.
+     * */
+    public <T, R> Function<T, R> protect(Function<T, R> function) {
+        Objects.requireNonNull(function, "function");
+        return t -> this.call(() -> function.apply(t));
+    }
+
+    public synchronized State getState() {
+        this.halfOpenIfDue();
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private synchronized long acquirePermission() {
+        this.halfOpenIfDue();
+        switch (state) {
+            case OPEN -> throw new CircuitOpenException(name);
+            case HALF_OPEN -> {
+                if (halfOpenPermits == 0) {
+                    throw new CircuitOpenException(name);
+                }
+                halfOpenPermits--;
+            }
+            case CLOSED -> {
+            }
+        }
+        return generation;
+    }
+
+    private synchronized void record(long permit, boolean failed, boolean ignored) {
+        if (permit != generation) {
+            return; // started before the last state change
+        }
+        switch (state) {
+            case CLOSED -> {
+                if (!ignored) {
+                    this.recordInWindow(failed);
+                }
+            }
+            case HALF_OPEN -> {
+                if (ignored) {
+                    halfOpenPermits++; // give the trial to somebody else
+                } else if (failed) {
+                    this.transitionTo(State.OPEN);
+                } else if (++halfOpenSuccesses >= policy.halfOpenCalls()) {
+                    this.transitionTo(State.CLOSED);
+                }
+            }
+            case OPEN -> {
+            }
+        }
+    }
+
+    private void recordInWindow(boolean failed) {
+        if (windowCount == window.length) {
+            failureCount -= window[windowIndex] ? 1 : 0; // the oldest outcome leaves the window
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failed;
+        failureCount += failed ? 1 : 0;
+        windowIndex = (windowIndex + 1) % window.length;
+        if (windowCount >= policy.minimumCalls() && failureCount >= policy.failureRateThreshold() * windowCount) {
+            this.transitionTo(State.OPEN);
+        }
+    }
+
+    private void halfOpenIfDue() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= policy.openDuration().toNanos()) {
+            this.transitionTo(State.HALF_OPEN);
+        }
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        generation++;
+        switch (newState) {
+            case OPEN -> openedAtNanos = System.nanoTime();
+            case HALF_OPEN -> {
+                halfOpenPermits = policy.halfOpenCalls();
+                halfOpenSuccesses = 0;
+            }
+            case CLOSED -> {
+                windowIndex = 0;
+                windowCount = 0;
+                failureCount = 0;
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CircuitBreaker{name=" + name + ", state=" + state + ", failures=" + failureCount + "/" + windowCount + "}";
+    }
+}
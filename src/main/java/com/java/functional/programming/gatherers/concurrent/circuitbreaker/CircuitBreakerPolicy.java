@@ -0,0 +1,40 @@
+package com.java.functional.programming.gatherers.concurrent.circuitbreaker;
+
+import com.java.functional.programming.gatherers.concurrent.Preconditions;
+
+import java.time.Duration;
+
+/**
+ * When a CircuitBreaker opens, and how it recovers.
+ * failureRateThreshold: the circuit opens when this fraction (0, 1] of the calls in the sliding window failed.
+ * slidingWindowSize:    number of most recent calls the failure rate is computed over.
+ * minimumCalls:         no decision is made before this many calls were recorded, so one early failure does not open the circuit.
+ * openDuration:         how long an open circuit rejects calls before it lets trial calls through (half-open).
+ * halfOpenCalls:        number of trial calls in half-open. All of them must succeed to close the circuit, any failure opens it again.
+ * */
+public record CircuitBreakerPolicy(double failureRateThreshold,
+                                   int slidingWindowSize,
+                                   int minimumCalls,
+                                   Duration openDuration,
+                                   int halfOpenCalls) {
+
+    public CircuitBreakerPolicy {
+        if (!(failureRateThreshold > 0 && failureRateThreshold <= 1)) {
+            throw new IllegalArgumentException("failureRateThreshold must be within (0, 1], but was " + failureRateThreshold);
+        }
+        Preconditions.requirePositive(slidingWindowSize, "slidingWindowSize");
+        Preconditions.requirePositive(minimumCalls, "minimumCalls");
+        if (minimumCalls > slidingWindowSize) {
+            throw new IllegalArgumentException("minimumCalls must be <= slidingWindowSize, but was " + minimumCalls);
+        }
+        Preconditions.requirePositive(openDuration, "openDuration");
+        Preconditions.requirePositive(halfOpenCalls, "halfOpenCalls");
+    }
+
+    /**
+     * decides over the last 100 calls (at least 20), and sends 5 trial calls after openDuration.
+     * */
+    public static CircuitBreakerPolicy of(double failureRateThreshold, Duration openDuration) {
+        return new CircuitBreakerPolicy(failureRateThreshold, 100, 20, openDuration, 5);
+    }
+}
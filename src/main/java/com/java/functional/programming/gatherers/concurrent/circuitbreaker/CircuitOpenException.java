@@ -0,0 +1,11 @@
+package com.java.functional.programming.gatherers.concurrent.circuitbreaker;
+
+/**
+ * Thrown instead of calling the backend while the circuit is open.
+ * */
+public class CircuitOpenException extends RuntimeException {
+
+    public CircuitOpenException(String name) {
+        super("Circuit breaker '" + name + "' is open");
+    }
+}
@@ -0,0 +1,80 @@
+package com.java.functional.programming.gatherers.concurrent.coalescing;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Decorates a (blocking, I/O bound) function with in-flight request coalescing ("single flight"):
+ * while a call for a key is running, every other caller with the same key waits for that call instead of sending its own, and gets the same result (or exception).
+ * Once the call completes the key is forgotten, so this is not a cache: a later caller sends a new call.
+ *
+ * Waiting callers park their (virtual) thread on the shared future.
+ * If the leading call fails, or is cancelled through interruption, all callers waiting for it fail with the same exception.
+ * */
+public class SingleFlightFunction<T, K, R> implements Function<T, R> {
+
+    private final Function<T, K> keyFunction;
+    private final Function<T, R> function;
+    private final ConcurrentMap<K, CompletableFuture<R>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    public SingleFlightFunction(Function<T, K> keyFunction, Function<T, R> function) {
+        this.keyFunction = Objects.requireNonNull(keyFunction, "keyFunction");
+        this.function = Objects.requireNonNull(function, "function");
+    }
+
+    /**
+     * the element itself is the key, e.g. coalesce(RestClient::getProduct)
+     * */
+    public static <T, R> SingleFlightFunction<T, T, R> coalesce(Function<T, R> function) {
+        return new SingleFlightFunction<>(Function.identity(), function);
+    }
+
+    public static <T, K, R> SingleFlightFunction<T, K, R> coalesce(Function<T, K> keyFunction, Function<T, R> function) {
+        return new SingleFlightFunction<>(keyFunction, function);
+    }
+
+    @Override
+    public R apply(T t) {
+        K key = keyFunction.apply(t);
+        var call = new CompletableFuture<R>();
+        var running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            coalescedCount.increment();
+            return this.await(running);
+        }
+        try {
+            R result = function.apply(t);
+            call.complete(result);
+            return result;
+        } catch (Throwable e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call); // after completing, so nobody can join a call that will never complete
+        }
+    }
+
+    /**
+     * number of calls that were served by a call already in flight, instead of calling the function
+     * */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    private R await(CompletableFuture<R> running) {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw (e.getCause() instanceof RuntimeException re) ? re : new RuntimeException(e.getCause());
+        }
+    }
+}
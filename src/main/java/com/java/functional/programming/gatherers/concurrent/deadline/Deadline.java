@@ -0,0 +1,120 @@
+package com.java.functional.programming.gatherers.concurrent.deadline;
+
+import com.java.functional.programming.gatherers.concurrent.Preconditions;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * A point in time by which the current unit of work (a stream, an element, a subtask) must be done, carried in a ScopedValue.
+ * Nested calls read it to use the remaining budget as their own timeout, and to skip work that cannot finish in time anyway.
+ *
+ * StructuredTaskScope subtasks inherit the binding by themselves. Threads of an ExecutorService do not,
+ * so the concurrent gatherers and the SubTaskExecutors capture the current deadline when they submit a task and bind it again inside (see propagate).
+ *
+ *   Deadline.callWithin(Duration.ofSeconds(2), () -> ids.stream().gather(executeConcurrent(100, RestClient::getProduct)).toList());
+ * */
+public final class Deadline {
+
+    private static final ScopedValue<Deadline> CURRENT = ScopedValue.newInstance();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(Duration budget) {
+        Preconditions.requirePositive(budget, "budget");
+        return new Deadline(System.nanoTime() + budget.toNanos());
+    }
+
+    /**
+     * the deadline bound by the caller, if any
+     * */
+    public static Optional<Deadline> current() {
+        return CURRENT.isBound() ? Optional.of(CURRENT.get()) : Optional.empty();
+    }
+
+    /**
+     * a deadline budget from now, but never later than the current one: a nested call cannot extend the budget of its caller.
+     * */
+    public static Deadline within(Duration budget) {
+        var deadline = after(budget);
+        return current().map(outer -> outer.earliest(deadline)).orElse(deadline);
+    }
+
+    /**
+     * @return timeout, or the remaining budget of the current deadline if that is shorter
+     * */
+    public static Duration remainingOr(Duration timeout) {
+        return current().map(Deadline::remaining).filter(remaining -> remaining.compareTo(timeout) < 0).orElse(timeout);
+    }
+
+    /**
+     * fails fast when the current deadline has already passed, no-op without a deadline.
+     * */
+    public static void throwIfExpired(String work) {
+        if (current().map(Deadline::isExpired).orElse(false)) {
+            throw new DeadlineExceededException("deadline exceeded before " + work);
+        }
+    }
+
+    public static <T> T callWithin(Duration budget, Supplier<T> supplier) {
+        return within(budget).call(supplier);
+    }
+
+    /**
+     * Captures the current deadline of the calling thread, so a task handed to an ExecutorService runs with it as well.
+     * The task fails with a DeadlineExceededException, without running, when it only starts after the deadline.
+     * */
+    public static <V> Callable<V> propagate(Callable<V> task) {
+        var captured = current();
+        if (captured.isEmpty()) {
+            return task;
+        }
+        var deadline = captured.get();
+        return () -> {
+            if (deadline.isExpired()) {
+                throw new DeadlineExceededException("deadline exceeded before the task started");
+            }
+            return ScopedValue.where(CURRENT, deadline).call(task::call);
+        };
+    }
+
+    /**
+     * runs the supplier with this deadline as the current one
+     * */
+    public <T> T call(Supplier<T> supplier) {
+        try {
+            return ScopedValue.where(CURRENT, this).call(supplier::get);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    public long deadlineNanos() {
+        return deadlineNanos;
+    }
+
+    public Deadline earliest(Deadline other) {
+        return other.deadlineNanos - deadlineNanos < 0 ? other : this;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remaining=" + remaining() + "}";
+    }
+}
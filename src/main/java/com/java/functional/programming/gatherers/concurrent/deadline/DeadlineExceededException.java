@@ -0,0 +1,11 @@
+package com.java.functional.programming.gatherers.concurrent.deadline;
+
+/**
+ * Thrown instead of starting work that cannot complete before the current Deadline.
+ * */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,50 @@
+package com.java.functional.programming.gatherers.concurrent.degraded;
+
+import com.java.functional.programming.gatherers.concurrent.Preconditions;
+import com.java.functional.programming.gatherers.concurrent.deadline.Deadline;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * How long a sub-result of an aggregate may take, and what to use instead when it fails or takes longer.
+ * timeout:  counted from the submission of the subtask, capped by the current Deadline.
+ * fallback: the value of a missing sub-result, may be null.
+ * */
+public record FallbackPolicy<R>(Duration timeout, R fallback) {
+
+    public FallbackPolicy {
+        Preconditions.requirePositive(timeout, "timeout");
+    }
+
+    public static <R> FallbackPolicy<R> of(Duration timeout, R fallback) {
+        return new FallbackPolicy<>(timeout, fallback);
+    }
+
+    /**
+     * waits for the future until the timeout, counted from submittedAtNanos. A failed or overdue (then cancelled) subtask becomes a missing SubResult.
+     * Only an interrupt of the waiting thread is propagated, the aggregate is being cancelled then.
+     * */
+    public SubResult<R> resultOf(Future<R> future, long submittedAtNanos) {
+        long endNanos = submittedAtNanos + timeout.toNanos();
+        var deadline = Deadline.current();
+        if (deadline.isPresent() && deadline.get().deadlineNanos() - endNanos < 0) { // one absolute end, siblings waited on before don't shorten it
+            endNanos = deadline.get().deadlineNanos();
+        }
+        try {
+            return SubResult.present(future.get(endNanos - System.nanoTime(), TimeUnit.NANOSECONDS));
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            return SubResult.missing(fallback, e.getCause());
+        } catch (TimeoutException e) {
+            future.cancel(true); // nobody waits for it anymore
+            return SubResult.missing(fallback, new TimeoutException("sub-result did not complete within " + timeout));
+        }
+    }
+}
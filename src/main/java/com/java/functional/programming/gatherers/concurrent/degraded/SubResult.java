@@ -0,0 +1,22 @@
+package com.java.functional.programming.gatherers.concurrent.degraded;
+
+import java.util.Objects;
+
+/**
+ * One part of a degraded-mode aggregate: either the value of the subtask, or the fallback value and why the subtask is missing.
+ * The aggregating function uses isMissing() to flag the parts it built the aggregate without, e.g. a product without its rating.
+ * */
+public record SubResult<R>(R value, Throwable failure) {
+
+    public static <R> SubResult<R> present(R value) {
+        return new SubResult<>(value, null);
+    }
+
+    public static <R> SubResult<R> missing(R fallback, Throwable failure) {
+        return new SubResult<>(fallback, Objects.requireNonNull(failure, "failure"));
+    }
+
+    public boolean isMissing() {
+        return failure != null;
+    }
+}
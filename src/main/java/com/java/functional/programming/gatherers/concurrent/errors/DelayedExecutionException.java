@@ -0,0 +1,27 @@
+package com.java.functional.programming.gatherers.concurrent.errors;
+
+import java.util.Map;
+
+/**
+ * Thrown by the delay-error gatherers at the end of the stream, or as soon as the error budget is exceeded.
+ * getSuppressed() only holds a sample of the failures, getErrorCount() and getCountsByType() account for all of them.
+ * */
+public class DelayedExecutionException extends RuntimeException {
+
+    private final long errorCount;
+    private final Map<String, Long> countsByType;
+
+    public DelayedExecutionException(String message, long errorCount, Map<String, Long> countsByType) {
+        super(message);
+        this.errorCount = errorCount;
+        this.countsByType = Map.copyOf(countsByType);
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public Map<String, Long> getCountsByType() {
+        return countsByType;
+    }
+}
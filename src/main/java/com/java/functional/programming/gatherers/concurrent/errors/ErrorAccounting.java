@@ -0,0 +1,90 @@
+package com.java.functional.programming.gatherers.concurrent.errors;
+
+import com.java.functional.programming.gatherers.concurrent.Preconditions;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps track of the failures of a stream in constant memory, however many failures occur:
+ *  - only the first sampleSize exceptions are kept (with their stack traces),
+ *  - every failure is counted per exception type, for at most maxExceptionTypes types, the rest is counted as OTHER_EXCEPTION_TYPES.
+ * Not thread safe, it is owned by the gatherer state.
+ * */
+public class ErrorAccounting {
+
+    public static final int DEFAULT_SAMPLE_SIZE = 10;
+    static final int MAX_EXCEPTION_TYPES = 64;
+    static final String OTHER_EXCEPTION_TYPES = "other";
+
+    private final int sampleSize;
+    private final int maxExceptionTypes;
+    private final ErrorBudget errorBudget;
+    private final List<Throwable> samples;
+    private final Map<String, Long> countsByType;
+    private long errorCount;
+    private long successCount;
+
+    public ErrorAccounting(ErrorBudget errorBudget) {
+        this(DEFAULT_SAMPLE_SIZE, errorBudget);
+    }
+
+    public ErrorAccounting(int sampleSize, ErrorBudget errorBudget) {
+        this(sampleSize, MAX_EXCEPTION_TYPES, errorBudget);
+    }
+
+    ErrorAccounting(int sampleSize, int maxExceptionTypes, ErrorBudget errorBudget) {
+        this.sampleSize = Preconditions.requirePositive(sampleSize, "sampleSize");
+        this.maxExceptionTypes = Preconditions.requirePositive(maxExceptionTypes, "maxExceptionTypes");
+        this.errorBudget = Objects.requireNonNull(errorBudget, "errorBudget");
+        this.samples = new ArrayList<>(sampleSize);
+        this.countsByType = new LinkedHashMap<>();
+    }
+
+    public void recordSuccess() {
+        successCount++;
+    }
+
+    public void recordError(Throwable error) {
+        errorCount++;
+        if (samples.size() < sampleSize) {
+            samples.add(error);
+        }
+        var type = error.getClass().getName();
+        if (!countsByType.containsKey(type) && countsByType.size() >= maxExceptionTypes) {
+            type = OTHER_EXCEPTION_TYPES;
+        }
+        countsByType.merge(type, 1L, Long::sum);
+    }
+
+    public boolean hasErrors() {
+        return errorCount > 0;
+    }
+
+    public boolean isBudgetExceeded() {
+        return errorBudget.isExceeded(errorCount, errorCount + successCount);
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public Map<String, Long> getCountsByType() {
+        return Map.copyOf(countsByType);
+    }
+
+    /**
+     * exception summarising all failures, the sampled exceptions are attached as suppressed.
+     * */
+    public DelayedExecutionException toException(String message) {
+        var exception = new DelayedExecutionException(
+                message + ": " + errorCount + " of " + (errorCount + successCount) + " tasks failed " + countsByType,
+                errorCount,
+                this.getCountsByType());
+        samples.forEach(exception::addSuppressed);
+        return exception;
+    }
+}
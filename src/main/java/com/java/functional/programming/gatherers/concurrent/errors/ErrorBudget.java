@@ -0,0 +1,41 @@
+package com.java.functional.programming.gatherers.concurrent.errors;
+
+import com.java.functional.programming.gatherers.concurrent.Preconditions;
+
+/**
+ * How many failures a stream may have before it is aborted, instead of running to the end against a broken backend.
+ * maxErrors:    abort when more than this many tasks failed.
+ * maxErrorRate: abort when more than this fraction of the completed tasks failed, e.g. 0.5.
+ * minSamples:   the rate is only checked once that many tasks completed, so that the first failure of a stream does not count as 100%.
+ * */
+public record ErrorBudget(long maxErrors, double maxErrorRate, int minSamples) {
+
+    public ErrorBudget {
+        if (maxErrors < 0) {
+            throw new IllegalArgumentException("maxErrors must be >= 0, but was " + maxErrors);
+        }
+        if (maxErrorRate <= 0 || maxErrorRate > 1) {
+            throw new IllegalArgumentException("maxErrorRate must be within (0, 1], but was " + maxErrorRate);
+        }
+        Preconditions.requirePositive(minSamples, "minSamples");
+    }
+
+    public static ErrorBudget unlimited() {
+        return new ErrorBudget(Long.MAX_VALUE, 1, 1);
+    }
+
+    public static ErrorBudget maxErrors(long maxErrors) {
+        return new ErrorBudget(maxErrors, 1, 1);
+    }
+
+    public static ErrorBudget maxErrorRate(double maxErrorRate, int minSamples) {
+        return new ErrorBudget(Long.MAX_VALUE, maxErrorRate, minSamples);
+    }
+
+    public boolean isExceeded(long errors, long completed) {
+        if (errors > maxErrors) {
+            return true;
+        }
+        return completed >= minSamples && errors > maxErrorRate * completed;
+    }
+}
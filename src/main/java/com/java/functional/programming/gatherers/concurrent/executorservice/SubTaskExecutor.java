@@ -0,0 +1,16 @@
+package com.java.functional.programming.gatherers.concurrent.executorservice;
+
+import com.java.functional.programming.gatherers.concurrent.bulkhead.Bulkhead;
+
+import java.util.concurrent.Callable;
+
+public interface SubTaskExecutor {
+    <T> SubTaskResult<T> execute(Callable<T> callable);
+
+    /**
+     * executes the callable in a slot of the bulkhead of its backend, see Bulkhead.
+     * */
+    default <T> SubTaskResult<T> execute(Bulkhead bulkhead, Callable<T> callable) {
+        return this.execute(bulkhead.protect(callable));
+    }
+}
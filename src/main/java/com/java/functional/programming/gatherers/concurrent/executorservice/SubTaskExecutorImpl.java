@@ -0,0 +1,49 @@
+package com.java.functional.programming.gatherers.concurrent.executorservice;
+
+import com.java.functional.programming.gatherers.concurrent.budget.FanOutBudget;
+import com.java.functional.programming.gatherers.concurrent.bulkhead.Bulkhead;
+import com.java.functional.programming.gatherers.concurrent.deadline.Deadline;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+public class SubTaskExecutorImpl implements SubTaskExecutor {
+
+    private final ExecutorService executorService;
+    private final FanOutBudget.Lease lease; // null: subtasks are not bounded
+
+    public SubTaskExecutorImpl(ExecutorService executorService) {
+        this.executorService = Objects.requireNonNull(executorService, "executorService");
+        this.lease = null;
+    }
+
+    /**
+     * Every subtask holds a permit of the lease's FanOutBudget while it runs, it waits for one in its own thread.
+     * */
+    public SubTaskExecutorImpl(ExecutorService executorService, FanOutBudget.Lease lease) {
+        this.executorService = Objects.requireNonNull(executorService, "executorService");
+        this.lease = Objects.requireNonNull(lease, "lease");
+    }
+
+    @Override
+    public <T> SubTaskResult<T> execute(Callable<T> callable) {
+        Objects.requireNonNull(callable, "callable");
+        var task = lease == null ? callable : lease.bound(callable);
+        var future = this.executorService.submit(Deadline.propagate(task)); // pool threads do not inherit the caller's deadline
+        return new SubTaskResultImpl<>(future);
+    }
+
+    /**
+     * The subtask waits for its bulkhead slot before it takes a permit of the FanOutBudget,
+     * so subtasks queued behind a slow backend do not hold permits the other backends could use.
+     * */
+    @Override
+    public <T> SubTaskResult<T> execute(Bulkhead bulkhead, Callable<T> callable) {
+        Objects.requireNonNull(bulkhead, "bulkhead");
+        Objects.requireNonNull(callable, "callable");
+        var task = lease == null ? callable : lease.bound(callable);
+        var future = this.executorService.submit(Deadline.propagate(bulkhead.protect(task)));
+        return new SubTaskResultImpl<>(future);
+    }
+}
@@ -1,4 +1,4 @@
-package com.java.functional.programming.streamgatherers.concurrency.util.executorservice;
+package com.java.functional.programming.gatherers.concurrent.executorservice;
 
 import java.util.function.Function;
 
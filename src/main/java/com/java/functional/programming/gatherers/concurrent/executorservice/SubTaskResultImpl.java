@@ -1,5 +1,7 @@
-package com.java.functional.programming.streamgatherers.concurrency.util.executorservice;
+package com.java.functional.programming.gatherers.concurrent.executorservice;
 
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.function.Function;
 
@@ -19,6 +21,11 @@ public class SubTaskResultImpl<T> implements SubTaskResult<T> {
     public T get() {
         try {
             return this.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return this.errorHandler.apply(e);
+        } catch (ExecutionException e) {
+            return this.errorHandler.apply(e.getCause());
         } catch (Exception e) {
             return this.errorHandler.apply(e);
         }
@@ -26,7 +33,7 @@ public class SubTaskResultImpl<T> implements SubTaskResult<T> {
 
     @Override
     public SubTaskResult<T> onError(Function<Throwable, T> errorHandler) {
-        this.errorHandler = errorHandler;
+        this.errorHandler = Objects.requireNonNull(errorHandler, "errorHandler");
         return this;
     }
 }
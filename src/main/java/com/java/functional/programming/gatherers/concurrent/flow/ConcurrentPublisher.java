@@ -0,0 +1,182 @@
+package com.java.functional.programming.gatherers.concurrent.flow;
+
+import com.java.functional.programming.gatherers.concurrent.Preconditions;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * The push-based counterpart of executeConcurrent: maps the elements of the source concurrently using virtual threads
+ * and publishes the results to a Flow.Subscriber in the order they complete.
+ *
+ * The demand of the subscriber (request(n)) controls how many tasks may be in flight:
+ * a task is only started when its result can be delivered, so the started but not yet delivered tasks never exceed
+ * min(maxConcurrency, outstanding demand) and no result has to be buffered. A slow subscriber therefore slows the backend calls down,
+ * instead of piling results up in memory.
+ * Like ExecuteConcurrent it does NOT delay the errors: the first failure cancels the in flight tasks and is signalled with onError.
+ * cancel() cancels (interrupts) the in flight tasks as well.
+ *
+ * Every subscriber gets its own iteration of the source (and its own executor), e.g. ConcurrentPublisher.of(productIds, 100, RestClient::getProduct).
+ * A single use source like a Stream can be passed as stream::iterator, it then supports one subscriber.
+ * */
+public class ConcurrentPublisher<T, R> implements Flow.Publisher<R> {
+
+    private final Iterable<T> source;
+    private final int maxConcurrency;
+    private final Function<T, R> mapperFunction;
+
+    public ConcurrentPublisher(Iterable<T> source, int maxConcurrency, Function<T, R> mapperFunction) {
+        this.source = Objects.requireNonNull(source, "source");
+        this.maxConcurrency = Preconditions.requirePositive(maxConcurrency, "maxConcurrency");
+        this.mapperFunction = Objects.requireNonNull(mapperFunction, "mapperFunction");
+    }
+
+    public static <T, R> ConcurrentPublisher<T, R> of(Iterable<T> source, int maxConcurrency, Function<T, R> mapperFunction) {
+        return new ConcurrentPublisher<>(source, maxConcurrency, mapperFunction);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super R> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        Iterator<T> iterator;
+        try {
+            iterator = source.iterator();
+        } catch (RuntimeException e) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                public void request(long n) {
+                }
+
+                public void cancel() {
+                }
+            });
+            subscriber.onError(e);
+            return;
+        }
+        var subscription = new ConcurrentSubscription<>(iterator, maxConcurrency, mapperFunction, subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.drain();
+    }
+
+    private record Outcome<R>(R result, Throwable error) {
+    }
+
+    /**
+     * All signals to the subscriber are emitted by drain(), which runs on one thread at a time (work-in-progress counter):
+     * the thread calling request(n), or the task thread which just completed. Whoever finds drain() busy only counts it as missed,
+     * and the thread inside drain() loops once more. So the subscriber sees serialized signals without any lock.
+     * */
+    private static final class ConcurrentSubscription<T, R> implements Flow.Subscription {
+
+        private final Iterator<T> source;
+        private final int maxConcurrency;
+        private final Function<T, R> mapperFunction;
+        private final Flow.Subscriber<? super R> subscriber;
+        private final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+        private final ConcurrentLinkedQueue<Outcome<R>> completed = new ConcurrentLinkedQueue<>();
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+        private int outstanding; // started and not yet delivered, only accessed in drain()
+        private boolean done; // only accessed in drain()
+
+        ConcurrentSubscription(Iterator<T> source, int maxConcurrency, Function<T, R> mapperFunction, Flow.Subscriber<? super R> subscriber) {
+            this.source = source;
+            this.maxConcurrency = maxConcurrency;
+            this.mapperFunction = mapperFunction;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("n must be > 0, but was " + n); // rule 3.9 of the reactive streams specification
+            } else {
+                demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            this.drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            executorService.shutdownNow(); // interrupts the in flight tasks
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                this.emitAndDispatch();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emitAndDispatch() {
+            if (done || cancelled) {
+                return;
+            }
+            if (invalidRequest != null) {
+                this.terminate(invalidRequest);
+                return;
+            }
+            try {
+                Outcome<R> outcome;
+                while (demand.get() > 0 && (outcome = completed.poll()) != null) {
+                    outstanding--;
+                    if (outcome.error() != null) {
+                        this.terminate(outcome.error());
+                        return;
+                    }
+                    demand.decrementAndGet();
+                    subscriber.onNext(outcome.result());
+                    if (cancelled) {
+                        return;
+                    }
+                }
+                // a task is only started when its result is already demanded
+                while (outstanding < maxConcurrency && outstanding < demand.get() && source.hasNext()) {
+                    this.submit(source.next());
+                    outstanding++;
+                }
+                if (outstanding == 0 && !source.hasNext()) {
+                    done = true;
+                    executorService.shutdown();
+                    subscriber.onComplete();
+                }
+            } catch (RuntimeException e) { // a failing source or subscriber, or a submit racing with cancel()
+                if (!cancelled) {
+                    this.terminate(e);
+                }
+            }
+        }
+
+        private void submit(T element) {
+            executorService.execute(() -> {
+                Outcome<R> outcome;
+                try {
+                    outcome = new Outcome<>(Objects.requireNonNull(mapperFunction.apply(element), "result of mapperFunction"), null); // a Flow does not carry nulls
+                } catch (Throwable e) {
+                    outcome = new Outcome<>(null, e);
+                }
+                completed.add(outcome);
+                this.drain();
+            });
+        }
+
+        private void terminate(Throwable error) {
+            done = true;
+            executorService.shutdownNow(); // cancels the in flight tasks
+            subscriber.onError(error);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.java.functional.programming.gatherers.concurrent.flow;
+
+import com.java.functional.programming.gatherers.concurrent.Preconditions;
+
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The reverse adapter: a Flow.Publisher as the source of a (pull-based) Stream, so its items can go through the concurrent gatherers.
+ * At most prefetch items are requested ahead of the stream's consumption, and that is all which is ever buffered:
+ * once half of them are consumed, as many are requested again. A publisher sending more items than requested is cancelled,
+ * and the stream fails with an IllegalStateException after the items received within the demand.
+ *
+ *   try (var events = PublisherStream.toStream(publisher, 64)) {
+ *       events.gather(executeConcurrent(16, this::enrich)).forEach(this::store);
+ *   }
+ *
+ * Closing the stream cancels the subscription, which matters when the stream is short-circuited (e.g. limit) before the publisher completes.
+ * An onError of the publisher is rethrown by the stream (wrapped in a RuntimeException if checked), after the items received before it.
+ * */
+public final class PublisherStream {
+
+    private PublisherStream() {
+    }
+
+    public static <T> Stream<T> toStream(Flow.Publisher<T> publisher, int prefetch) {
+        Objects.requireNonNull(publisher, "publisher");
+        Preconditions.requirePositive(prefetch, "prefetch");
+        var subscriber = new PrefetchingSubscriber<T>(prefetch);
+        publisher.subscribe(subscriber);
+        return StreamSupport.stream(subscriber, false).onClose(subscriber::cancel);
+    }
+
+    private record Failure(Throwable error) {
+    }
+
+    private static final class PrefetchingSubscriber<T> extends Spliterators.AbstractSpliterator<T> implements Flow.Subscriber<T> {
+
+        private static final Object COMPLETE = new Object();
+
+        private final int prefetch;
+        private final int replenishThreshold;
+        private final ArrayBlockingQueue<T> queue; // never more items than requested, which is at most prefetch
+        private final AtomicLong demand = new AtomicLong(); // requested, but not yet received
+        private volatile Object terminal; // COMPLETE or a Failure, apart from the items so that it cannot be crowded out by them
+        private volatile Thread consumer; // the stream's thread while it waits for the next signal
+        private volatile Flow.Subscription subscription;
+        private volatile boolean cancelled;
+        private int consumedSinceRequest; // only accessed by the stream's thread
+        private boolean terminated; // only accessed by the stream's thread
+
+        PrefetchingSubscriber(int prefetch) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.prefetch = prefetch;
+            this.replenishThreshold = Math.max(1, prefetch / 2);
+            this.queue = new ArrayBlockingQueue<>(prefetch);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            if (this.subscription != null) {
+                subscription.cancel(); // rule 2.5: only one subscription
+                return;
+            }
+            this.subscription = subscription;
+            if (cancelled) {
+                subscription.cancel(); // the stream was closed before the publisher called back
+            } else {
+                this.request(prefetch);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            Objects.requireNonNull(item, "item");
+            if (terminal != null) {
+                return; // sent after the overrun was detected, before the cancellation took effect
+            }
+            if (demand.getAndDecrement() <= 0) {
+                subscription.cancel();
+                this.signalTerminal(new Failure(new IllegalStateException("publisher sent more items than requested")));
+                return;
+            }
+            queue.add(item); // cannot be full, the demand is bounded by its capacity
+            this.wakeConsumer();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.signalTerminal(new Failure(throwable));
+        }
+
+        @Override
+        public void onComplete() {
+            this.signalTerminal(COMPLETE);
+        }
+
+        private void signalTerminal(Object signal) {
+            if (terminal == null) { // signals are serialized by the publisher (rule 1.3), the first terminal one wins
+                terminal = signal;
+            }
+            this.wakeConsumer();
+        }
+
+        private void wakeConsumer() {
+            var waiting = consumer;
+            if (waiting != null) {
+                LockSupport.unpark(waiting);
+            }
+        }
+
+        private void request(long n) {
+            demand.addAndGet(n);
+            subscription.request(n);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (terminated) {
+                return false;
+            }
+            T next = this.awaitNextItem();
+            if (next == null) {
+                terminated = true;
+                if (terminal instanceof Failure failure) {
+                    throw (failure.error() instanceof RuntimeException re) ? re : new RuntimeException(failure.error());
+                }
+                return false;
+            }
+            if (++consumedSinceRequest >= replenishThreshold) {
+                this.request(consumedSinceRequest);
+                consumedSinceRequest = 0;
+            }
+            action.accept(next);
+            return true;
+        }
+
+        /**
+         * the next item, or null once the publisher terminated and every item received before was consumed
+         * */
+        private T awaitNextItem() {
+            consumer = Thread.currentThread();
+            try {
+                while (true) {
+                    T next = queue.poll();
+                    if (next != null) {
+                        return next;
+                    }
+                    if (terminal != null) {
+                        return queue.poll(); // an item sent right before the terminal signal
+                    }
+                    LockSupport.park(this);
+                    if (Thread.interrupted()) {
+                        Thread.currentThread().interrupt();
+                        this.cancel();
+                        throw new RuntimeException(new InterruptedException());
+                    }
+                }
+            } finally {
+                consumer = null;
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            var current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.java.functional.programming.gatherers.concurrent.hedging;
+
+import com.java.functional.programming.gatherers.concurrent.Preconditions;
+
+/**
+ * When to send a duplicate (hedged) request.
+ * percentile:   a hedge is sent once the first attempt has been running longer than this percentile of the recently observed latencies, e.g. 0.95.
+ *               With 0.95 roughly 5% of the calls are hedged, which bounds the extra load on the backend.
+ * minSamples:   no hedging until that many latencies have been observed, the percentile would be meaningless.
+ * sampleWindow: number of most recent latencies the percentile is computed over.
+ * */
+public record HedgePolicy(double percentile, int minSamples, int sampleWindow) {
+
+    public HedgePolicy {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("percentile must be within (0, 1), but was " + percentile);
+        }
+        Preconditions.requirePositive(minSamples, "minSamples");
+        Preconditions.requirePositive(sampleWindow, "sampleWindow");
+        if (minSamples > sampleWindow) {
+            throw new IllegalArgumentException("minSamples must be <= sampleWindow, but was " + minSamples);
+        }
+    }
+
+    public static HedgePolicy atPercentile(double percentile) {
+        return new HedgePolicy(percentile, 20, 1000);
+    }
+}
@@ -0,0 +1,96 @@
+package com.java.functional.programming.gatherers.concurrent.hedging;
+
+import com.java.functional.programming.gatherers.concurrent.deadline.Deadline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Decorates a (blocking, I/O bound) function with hedged requests: when the first attempt has not completed after the HedgePolicy percentile
+ * of the recent latencies, a second attempt is started, and whichever succeeds first wins. The loser is interrupted.
+ * A failure only fails the call when no other attempt is still running.
+ *
+ * Each attempt runs on its own virtual thread, so the decorated function can be used as the mapper of any of the concurrent gatherers.
+ * The caller's Deadline is bound in every attempt, a raw thread would not inherit it.
+ * Keep one instance per backend: the latency window is what decides when to hedge.
+ * */
+public class HedgedFunction<T, R> implements Function<T, R> {
+
+    private final Function<T, R> function;
+    private final LatencyWindow latencyWindow;
+    private final LongAdder hedgeCount = new LongAdder();
+
+    public HedgedFunction(Function<T, R> function, HedgePolicy hedgePolicy) {
+        this.function = Objects.requireNonNull(function, "function");
+        Objects.requireNonNull(hedgePolicy, "hedgePolicy");
+        this.latencyWindow = new LatencyWindow(hedgePolicy.sampleWindow(), hedgePolicy.minSamples(), hedgePolicy.percentile());
+    }
+
+    public static <T, R> HedgedFunction<T, R> hedge(Function<T, R> function, HedgePolicy hedgePolicy) {
+        return new HedgedFunction<>(function, hedgePolicy);
+    }
+
+    @Override
+    public R apply(T t) {
+        long start = System.nanoTime();
+        var result = new CompletableFuture<R>();
+        var runningAttempts = new AtomicInteger(1);
+        List<Thread> attempts = new ArrayList<>(2);
+        attempts.add(this.startAttempt(t, result, runningAttempts));
+        try {
+            long hedgeDelay = latencyWindow.percentileNanos();
+            if (hedgeDelay >= 0) {
+                try {
+                    return this.recordLatency(start, result.get(hedgeDelay, TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    runningAttempts.incrementAndGet(); // before the check, so a failing first attempt cannot complete the result in between
+                    if (!result.isDone()) {
+                        attempts.add(this.startAttempt(t, result, runningAttempts));
+                        hedgeCount.increment();
+                    }
+                }
+            }
+            return this.recordLatency(start, result.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw (e.getCause() instanceof RuntimeException re) ? re : new RuntimeException(e.getCause());
+        } finally {
+            attempts.forEach(Thread::interrupt); // cancels the loser, no-op for a finished attempt
+        }
+    }
+
+    /**
+     * number of hedged (duplicate) requests sent so far
+     * */
+    public long getHedgeCount() {
+        return hedgeCount.sum();
+    }
+
+    private Thread startAttempt(T t, CompletableFuture<R> result, AtomicInteger runningAttempts) {
+        var attempt = Deadline.propagate(() -> function.apply(t)); // captured on the caller's thread
+        return Thread.ofVirtual().start(() -> {
+            try {
+                result.complete(attempt.call());
+            } catch (Throwable e) {
+                if (runningAttempts.decrementAndGet() == 0) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+    }
+
+    private R recordLatency(long start, R result) {
+        latencyWindow.record(System.nanoTime() - start);
+        return result;
+    }
+}
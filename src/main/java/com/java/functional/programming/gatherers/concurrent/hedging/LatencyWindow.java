@@ -0,0 +1,47 @@
+package com.java.functional.programming.gatherers.concurrent.hedging;
+
+import java.util.Arrays;
+
+/**
+ * Ring buffer of the most recent latencies.
+ * Sorting the window for every call would cost more than the call itself on a hot path,
+ * so the percentile is recomputed only after every tenth of the window has been replaced and cached in between.
+ * */
+class LatencyWindow {
+
+    private final long[] latencies;
+    private final int minSamples;
+    private final double percentile;
+    private final int recomputeInterval;
+    private int next; // write index, wraps around
+    private int count; // samples in the window, saturates at its size so a long-lived instance never overflows
+    private int sinceRecompute;
+    private volatile long percentileNanos = -1;
+
+    LatencyWindow(int size, int minSamples, double percentile) {
+        this.latencies = new long[size];
+        this.minSamples = minSamples;
+        this.percentile = percentile;
+        this.recomputeInterval = Math.max(1, size / 10);
+    }
+
+    synchronized void record(long latencyNanos) {
+        latencies[next] = latencyNanos;
+        next = (next + 1) % latencies.length;
+        count = Math.min(count + 1, latencies.length);
+        sinceRecompute++;
+        if (count >= minSamples && (percentileNanos < 0 || sinceRecompute >= recomputeInterval)) {
+            var sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            percentileNanos = sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+            sinceRecompute = 0;
+        }
+    }
+
+    /**
+     * @return the latency percentile in nanos, or -1 when fewer than minSamples latencies were recorded
+     * */
+    long percentileNanos() {
+        return percentileNanos;
+    }
+}
@@ -0,0 +1,80 @@
+package com.java.functional.programming.gatherers.concurrent.limit;
+
+import com.java.functional.programming.gatherers.concurrent.Preconditions;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * Additive Increase / Multiplicative Decrease, the loss based control used by TCP.
+ *  - a task that succeeds within the latency threshold grows the limit by 1, but only when the limit is actually being used (in flight >= limit / 2),
+ *    otherwise an idle pipeline would inflate the limit without any evidence that the backend can take it.
+ *  - a task that fails, or succeeds slower than the threshold, shrinks the limit by the backoff ratio.
+ *    At most once per overload event: the drop of a task which started before the last decrease is ignored,
+ *    so a burst of N concurrent failures from the same overload cuts the limit once, not N times down to the floor.
+ * The limit always stays within [minLimit, maxLimit].
+ * */
+public class AimdConcurrencyLimit implements ConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final LongSupplier nanoClock;
+    private volatile int limit;
+    private boolean decreased;
+    private long lastDecreaseNanos;
+
+    public AimdConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, Duration latencyThreshold) {
+        this(initialLimit, minLimit, maxLimit, backoffRatio, latencyThreshold, System::nanoTime);
+    }
+
+    AimdConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, Duration latencyThreshold, LongSupplier nanoClock) {
+        Preconditions.requirePositive(minLimit, "minLimit");
+        if (initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("initialLimit must be within [" + minLimit + ", " + maxLimit + "], but was " + initialLimit);
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be within (0, 1), but was " + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = Preconditions.requirePositive(Objects.requireNonNull(latencyThreshold, "latencyThreshold"), "latencyThreshold").toNanos();
+        this.nanoClock = Objects.requireNonNull(nanoClock, "nanoClock");
+        this.limit = initialLimit;
+    }
+
+    /**
+     * starts at 10 in flight tasks, halves on overload and never exceeds maxLimit.
+     * */
+    public static AimdConcurrencyLimit of(int maxLimit, Duration latencyThreshold) {
+        return new AimdConcurrencyLimit(Math.min(10, maxLimit), 1, maxLimit, 0.5, latencyThreshold);
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long latencyNanos, int inFlight, boolean failed) {
+        if (failed || latencyNanos > latencyThresholdNanos) {
+            long now = nanoClock.getAsLong();
+            long startedAt = now - latencyNanos;
+            if (!decreased || startedAt - lastDecreaseNanos >= 0) { // otherwise it reports the overload we already backed off from
+                limit = Math.max(minLimit, (int) (limit * backoffRatio));
+                decreased = true;
+                lastDecreaseNanos = now;
+            }
+        } else if (inFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AimdConcurrencyLimit[limit=" + limit + "]";
+    }
+}
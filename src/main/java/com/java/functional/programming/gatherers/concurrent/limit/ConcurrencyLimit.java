@@ -0,0 +1,26 @@
+package com.java.functional.programming.gatherers.concurrent.limit;
+
+/**
+ * Decides how many tasks a concurrent gatherer may have in flight.
+ * ExecuteConcurrent reads getLimit() before accepting more elements from upstream and reports every completed task through onSample(...).
+ * Implementations are called from many virtual threads at once, so they must be thread safe.
+ * An adaptive implementation describes the capacity of a backend, so one instance can be shared by all pipelines calling that backend.
+ * */
+public interface ConcurrencyLimit {
+
+    /**
+     * current number of tasks that may be in flight, always >= 1.
+     * */
+    int getLimit();
+
+    /**
+     * @param latencyNanos time taken by the task
+     * @param inFlight     number of in flight tasks when the task was started (including itself)
+     * @param failed       whether the task completed exceptionally
+     * */
+    void onSample(long latencyNanos, int inFlight, boolean failed);
+
+    static ConcurrencyLimit fixed(int limit) {
+        return new FixedConcurrencyLimit(limit);
+    }
+}
@@ -0,0 +1,30 @@
+package com.java.functional.programming.gatherers.concurrent.limit;
+
+import com.java.functional.programming.gatherers.concurrent.Preconditions;
+
+/**
+ * Static limit, the behaviour of executeConcurrent(int maxConcurrency, ...).
+ * */
+public class FixedConcurrencyLimit implements ConcurrencyLimit {
+
+    private final int limit;
+
+    public FixedConcurrencyLimit(int limit) {
+        this.limit = Preconditions.requirePositive(limit, "limit");
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(long latencyNanos, int inFlight, boolean failed) {
+        // nothing to adapt
+    }
+
+    @Override
+    public String toString() {
+        return "FixedConcurrencyLimit[limit=" + limit + "]";
+    }
+}
@@ -0,0 +1,94 @@
+package com.java.functional.programming.gatherers.concurrent.limit;
+
+import com.java.functional.programming.gatherers.concurrent.Preconditions;
+
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * Latency based control modelled after TCP Vegas.
+ * The smallest latency ever observed (noLoadLatency) is taken as the latency of the backend without queueing.
+ * From a sample's latency we estimate how many of our requests are queued at the backend:
+ *      queue = limit * (1 - noLoadLatency / latency)
+ *  - queue < alpha: the backend is not saturated, grow the limit.
+ *  - queue > beta:  requests are queueing, shrink the limit before the backend starts failing.
+ * alpha and beta scale with log10(limit) so that large limits still move by a sensible step.
+ * A failed task shrinks the limit multiplicatively, like AIMD, and like there at most once per overload event:
+ * the failure of a task which started before the last decrease is ignored.
+ * */
+public class VegasConcurrencyLimit implements ConcurrencyLimit {
+
+    private static final double FAILURE_BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final LongSupplier nanoClock;
+    private boolean decreased;
+    private long lastDecreaseNanos;
+    private long noLoadLatencyNanos = Long.MAX_VALUE;
+    private double estimatedLimit;
+    private volatile int limit;
+
+    public VegasConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, System::nanoTime);
+    }
+
+    VegasConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, LongSupplier nanoClock) {
+        Preconditions.requirePositive(minLimit, "minLimit");
+        if (initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("initialLimit must be within [" + minLimit + ", " + maxLimit + "], but was " + initialLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.nanoClock = Objects.requireNonNull(nanoClock, "nanoClock");
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    public static VegasConcurrencyLimit of(int maxLimit) {
+        return new VegasConcurrencyLimit(Math.min(10, maxLimit), 1, maxLimit);
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long latencyNanos, int inFlight, boolean failed) {
+        if (failed) {
+            long now = nanoClock.getAsLong();
+            long startedAt = now - latencyNanos;
+            if (!decreased || startedAt - lastDecreaseNanos >= 0) { // otherwise it reports the overload we already backed off from
+                update(estimatedLimit * FAILURE_BACKOFF_RATIO);
+                decreased = true;
+                lastDecreaseNanos = now;
+            }
+            return;
+        }
+        if (latencyNanos <= 0) {
+            return;
+        }
+        noLoadLatencyNanos = Math.min(noLoadLatencyNanos, latencyNanos);
+        if (inFlight * 2 < estimatedLimit) {
+            return; // app limited, the sample says nothing about the backend capacity
+        }
+        double log10 = Math.max(1, Math.log10(estimatedLimit));
+        double queue = Math.ceil(estimatedLimit * (1 - (double) noLoadLatencyNanos / latencyNanos));
+        if (queue < 3 * log10) {
+            update(estimatedLimit + log10);
+        } else if (queue > 6 * log10) {
+            update(estimatedLimit - log10);
+        }
+    }
+
+    private void update(double newLimit) {
+        estimatedLimit = Math.clamp(newLimit, minLimit, maxLimit);
+        limit = (int) estimatedLimit;
+    }
+
+    @Override
+    public String toString() {
+        return "VegasConcurrencyLimit[limit=" + limit + ", noLoadLatencyNanos=" + noLoadLatencyNanos + "]";
+    }
+}
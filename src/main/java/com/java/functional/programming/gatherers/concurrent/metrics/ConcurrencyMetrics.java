@@ -0,0 +1,37 @@
+package com.java.functional.programming.gatherers.concurrent.metrics;
+
+/**
+ * Metrics SPI of the concurrent gatherers. ExecuteConcurrent reports to it and does not care where the numbers go:
+ * PipelineMetrics keeps them in memory and publishes them through JMX, another implementation may forward them to Micrometer, OpenTelemetry, etc.
+ *
+ * inFlightChanged(...), elementAccepted(...) and resultEmitted(...) are called by the thread consuming the stream,
+ * taskCompleted(...) by the task's own thread, so implementations must be thread safe.
+ * One instance describes one pipeline, and is shared by every evaluation of its gatherer.
+ * */
+public interface ConcurrencyMetrics {
+
+    /**
+     * +1 when a task is submitted, -1 when its result (or failure) is taken, -n for the n tasks cancelled when the stream ends early.
+     * */
+    void inFlightChanged(int delta);
+
+    /**
+     * @param saturated whether the window was full, i.e. the gatherer had to take a result before it could accept the element
+     * */
+    void elementAccepted(boolean saturated);
+
+    /**
+     * @param latencyNanos time spent in the mapper
+     * @param failed       whether the mapper threw
+     * */
+    void taskCompleted(long latencyNanos, boolean failed);
+
+    /**
+     * @param queueWaitNanos time between the task completing and its result being pushed downstream
+     * */
+    void resultEmitted(long queueWaitNanos);
+
+    static ConcurrencyMetrics noop() {
+        return NoopConcurrencyMetrics.INSTANCE;
+    }
+}
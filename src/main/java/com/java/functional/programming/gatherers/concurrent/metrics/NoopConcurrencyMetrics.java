@@ -0,0 +1,25 @@
+package com.java.functional.programming.gatherers.concurrent.metrics;
+
+final class NoopConcurrencyMetrics implements ConcurrencyMetrics {
+
+    static final NoopConcurrencyMetrics INSTANCE = new NoopConcurrencyMetrics();
+
+    private NoopConcurrencyMetrics() {
+    }
+
+    @Override
+    public void inFlightChanged(int delta) {
+    }
+
+    @Override
+    public void elementAccepted(boolean saturated) {
+    }
+
+    @Override
+    public void taskCompleted(long latencyNanos, boolean failed) {
+    }
+
+    @Override
+    public void resultEmitted(long queueWaitNanos) {
+    }
+}
@@ -0,0 +1,173 @@
+package com.java.functional.programming.gatherers.concurrent.metrics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory ConcurrencyMetrics of one pipeline:
+ *  - in flight:  tasks submitted and not yet taken, a gauge.
+ *  - saturation: share of the accepted elements that found the window full. Close to 1 means maxConcurrency (or the backend) is the bottleneck.
+ *  - task latency and queue wait (completed result waiting to be pushed, i.e. a slow consumer) as LatencyHistograms.
+ *
+ * registerMBean() publishes it under com.java.functional.programming.gatherers:type=ConcurrentGatherer,pipeline=<pipeline>, close() removes it again.
+ * */
+public class PipelineMetrics implements ConcurrencyMetrics, PipelineMetricsMBean, AutoCloseable {
+
+    private final String pipeline;
+    private final LongAdder inFlight = new LongAdder();
+    private final LongAdder acceptedCount = new LongAdder();
+    private final LongAdder saturatedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LatencyHistogram taskLatency = new LatencyHistogram();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private ObjectName objectName;
+
+    public PipelineMetrics(String pipeline) {
+        this.pipeline = Objects.requireNonNull(pipeline, "pipeline");
+    }
+
+    public synchronized PipelineMetrics registerMBean() {
+        if (objectName == null) {
+            try {
+                var name = new ObjectName("com.java.functional.programming.gatherers:type=ConcurrentGatherer,pipeline=" + ObjectName.quote(pipeline));
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+                objectName = name;
+            } catch (JMException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+                objectName = null;
+            } catch (JMException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Override
+    public void inFlightChanged(int delta) {
+        inFlight.add(delta);
+    }
+
+    @Override
+    public void elementAccepted(boolean saturated) {
+        acceptedCount.increment();
+        if (saturated) {
+            saturatedCount.increment();
+        }
+    }
+
+    @Override
+    public void taskCompleted(long latencyNanos, boolean failed) {
+        taskLatency.record(latencyNanos);
+        if (failed) {
+            failedCount.increment();
+        }
+    }
+
+    @Override
+    public void resultEmitted(long queueWaitNanos) {
+        queueWait.record(queueWaitNanos);
+    }
+
+    @Override
+    public String getPipeline() {
+        return pipeline;
+    }
+
+    @Override
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    @Override
+    public long getAcceptedCount() {
+        return acceptedCount.sum();
+    }
+
+    @Override
+    public long getSaturatedCount() {
+        return saturatedCount.sum();
+    }
+
+    @Override
+    public double getSaturationRatio() {
+        long accepted = acceptedCount.sum();
+        return accepted == 0 ? 0 : (double) saturatedCount.sum() / accepted;
+    }
+
+    @Override
+    public long getCompletedCount() {
+        return taskLatency.getCount();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    @Override
+    public double getTaskLatencyP50Millis() {
+        return millis(taskLatency.getValueAtPercentile(50));
+    }
+
+    @Override
+    public double getTaskLatencyP99Millis() {
+        return millis(taskLatency.getValueAtPercentile(99));
+    }
+
+    @Override
+    public double getTaskLatencyMaxMillis() {
+        return millis(taskLatency.getMaxNanos());
+    }
+
+    @Override
+    public double getQueueWaitP50Millis() {
+        return millis(queueWait.getValueAtPercentile(50));
+    }
+
+    @Override
+    public double getQueueWaitP99Millis() {
+        return millis(queueWait.getValueAtPercentile(99));
+    }
+
+    public LatencyHistogram getTaskLatency() {
+        return taskLatency;
+    }
+
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    /**
+     * resets the counters and histograms, not the in flight gauge.
+     * */
+    @Override
+    public void reset() {
+        acceptedCount.reset();
+        saturatedCount.reset();
+        failedCount.reset();
+        taskLatency.reset();
+        queueWait.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "PipelineMetrics{pipeline=%s, inFlight=%d, saturation=%.2f, failed=%d, taskLatency=[%s], queueWait=[%s]}".formatted(
+                pipeline, getInFlight(), getSaturationRatio(), getFailedCount(), taskLatency, queueWait);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
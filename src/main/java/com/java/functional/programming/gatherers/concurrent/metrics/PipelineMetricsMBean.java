@@ -0,0 +1,33 @@
+package com.java.functional.programming.gatherers.concurrent.metrics;
+
+/**
+ * JMX view of PipelineMetrics, latencies in milliseconds.
+ * */
+public interface PipelineMetricsMBean {
+
+    String getPipeline();
+
+    long getInFlight();
+
+    long getAcceptedCount();
+
+    long getSaturatedCount();
+
+    double getSaturationRatio();
+
+    long getCompletedCount();
+
+    long getFailedCount();
+
+    double getTaskLatencyP50Millis();
+
+    double getTaskLatencyP99Millis();
+
+    double getTaskLatencyMaxMillis();
+
+    double getQueueWaitP50Millis();
+
+    double getQueueWaitP99Millis();
+
+    void reset();
+}
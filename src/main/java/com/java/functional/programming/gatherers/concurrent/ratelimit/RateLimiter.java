@@ -0,0 +1,92 @@
+package com.java.functional.programming.gatherers.concurrent.ratelimit;
+
+import com.java.functional.programming.gatherers.concurrent.Preconditions;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Token bucket: tokens are added at permitsPerSecond, up to burstCapacity, and every call takes one.
+ * An idle bucket fills up, so after a pause up to burstCapacity calls go out at once; after that calls are spaced at the configured rate.
+ *
+ * A caller that finds the bucket empty reserves the next token that will be added (the bucket goes into debt) and sleeps until it is due.
+ * The lock is only held for that arithmetic, the sleep parks the (virtual) thread, there is no spinning and no polling.
+ * Callers are served in the order they reserved, so nobody starves. A caller interrupted while sleeping gives its reserved token back.
+ *
+ * Keep one instance per backend quota and share it between every pipeline calling that backend.
+ * */
+public class RateLimiter {
+
+    private final double permitsPerSecond;
+    private final int burstCapacity;
+    private final double nanosPerPermit;
+    private double storedPermits; // negative: permits already reserved by sleeping callers
+    private long lastRefillNanos;
+
+    public RateLimiter(double permitsPerSecond, int burstCapacity) {
+        if (!(permitsPerSecond > 0) || Double.isInfinite(permitsPerSecond)) {
+            throw new IllegalArgumentException("permitsPerSecond must be > 0, but was " + permitsPerSecond);
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burstCapacity = Preconditions.requirePositive(burstCapacity, "burstCapacity");
+        this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.storedPermits = burstCapacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * a bucket that holds one second worth of permits.
+     * */
+    public static RateLimiter of(double permitsPerSecond) {
+        return new RateLimiter(permitsPerSecond, Math.max(1, (int) permitsPerSecond));
+    }
+
+    /**
+     * Takes one permit, sleeping until it is available.
+     * */
+    public void acquire() {
+        long waitNanos = this.reserve();
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                this.cancelReservation(); // the token was never used, later callers must not wait for it
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Decorates the function, so every call first takes a permit. Use it as the mapper of the concurrent gatherers:
+     * the waiting happens on the task's virtual thread while maxConcurrency still bounds how many of them wait.
+     * */
+    public <T, R> Function<T, R> limit(Function<T, R> function) {
+        Objects.requireNonNull(function, "function");
+        return t -> {
+            this.acquire();
+            return function.apply(t);
+        };
+    }
+
+    /**
+     * @return how long the caller has to wait for the permit it just took.
+     * */
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        storedPermits = Math.min(burstCapacity, storedPermits + (now - lastRefillNanos) / nanosPerPermit);
+        lastRefillNanos = now;
+        storedPermits -= 1;
+        return storedPermits >= 0 ? 0 : (long) (-storedPermits * nanosPerPermit);
+    }
+
+    private synchronized void cancelReservation() {
+        storedPermits = Math.min(burstCapacity, storedPermits + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimiter{permitsPerSecond=" + permitsPerSecond + ", burstCapacity=" + burstCapacity + "}";
+    }
+}
@@ -0,0 +1,82 @@
+package com.java.functional.programming.gatherers.concurrent.retry;
+
+import com.java.functional.programming.gatherers.concurrent.Preconditions;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * How often and how late a failed task is tried again.
+ * maxAttempts:    total number of attempts, including the first one. 1 means no retry.
+ * initialBackoff: upper bound of the delay before the first retry.
+ * maxBackoff:     cap of the delay, however many attempts were made.
+ * multiplier:     the upper bound grows by this factor with every attempt (exponential backoff).
+ * retryable:      classifies the exception thrown by the task, only retryable failures are tried again.
+ *
+ * The actual delay is picked uniformly from [0, upper bound] ("full jitter"),
+ * so that tasks which failed together (e.g. during a backend hiccup) do not retry together and hit the backend in waves.
+ * */
+public record RetryPolicy(int maxAttempts,
+                          Duration initialBackoff,
+                          Duration maxBackoff,
+                          double multiplier,
+                          Predicate<Throwable> retryable) {
+
+    public RetryPolicy {
+        Preconditions.requirePositive(maxAttempts, "maxAttempts");
+        Preconditions.requirePositive(initialBackoff, "initialBackoff");
+        Preconditions.requirePositive(maxBackoff, "maxBackoff");
+        if (maxBackoff.compareTo(initialBackoff) < 0) {
+            throw new IllegalArgumentException("maxBackoff must be >= initialBackoff, but was " + maxBackoff);
+        }
+        if (multiplier < 1) {
+            throw new IllegalArgumentException("multiplier must be >= 1, but was " + multiplier);
+        }
+        Objects.requireNonNull(retryable, "retryable");
+    }
+
+    public static RetryPolicy noRetry() {
+        return new RetryPolicy(1, Duration.ofMillis(1), Duration.ofMillis(1), 1, t -> false);
+    }
+
+    /**
+     * retries every exception, doubling the backoff with each attempt.
+     * */
+    public static RetryPolicy of(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+        return new RetryPolicy(maxAttempts, initialBackoff, maxBackoff, 2, t -> true);
+    }
+
+    public RetryPolicy withRetryable(Predicate<Throwable> retryable) {
+        return new RetryPolicy(maxAttempts, initialBackoff, maxBackoff, multiplier, retryable);
+    }
+
+    /**
+     * only retries exceptions that are an instance of one of the given types.
+     * */
+    @SafeVarargs
+    public final RetryPolicy retryOn(Class<? extends Throwable>... exceptionTypes) {
+        var types = Arrays.copyOf(exceptionTypes, exceptionTypes.length);
+        return withRetryable(t -> Arrays.stream(types).anyMatch(type -> type.isInstance(t)));
+    }
+
+    /**
+     * @param failedAttempts attempts made so far, >= 1
+     * @return whether the task should be tried again after it failed with the given exception
+     * */
+    public boolean shouldRetry(int failedAttempts, Throwable failure) {
+        return failedAttempts < maxAttempts && retryable.test(failure);
+    }
+
+    /**
+     * @param failedAttempts attempts made so far, >= 1
+     * @return jittered delay in nanos before the next attempt
+     * */
+    public long backoffNanos(int failedAttempts) {
+        double upperBound = initialBackoff.toNanos() * Math.pow(multiplier, failedAttempts - 1);
+        long cappedUpperBound = (long) Math.min(upperBound, maxBackoff.toNanos());
+        return ThreadLocalRandom.current().nextLong(cappedUpperBound + 1);
+    }
+}
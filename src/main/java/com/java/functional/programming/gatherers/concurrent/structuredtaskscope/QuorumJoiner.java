@@ -0,0 +1,59 @@
+package com.java.functional.programming.gatherers.concurrent.structuredtaskscope;
+
+import com.java.functional.programming.gatherers.concurrent.Preconditions;
+
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Joiner for an N-of-M quorum: the scope is cancelled as soon as required subtasks succeeded,
+ * or as soon as so many of the replicas failed that the quorum can no longer be reached.
+ * onComplete is called concurrently by the subtask threads, hence the atomics.
+ * */
+class QuorumJoiner<T> implements StructuredTaskScope.Joiner<T, Void> {
+
+    private final int required;
+    private final int replicas;
+    private final AtomicInteger forked = new AtomicInteger();
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+
+    QuorumJoiner(int required, int replicas) {
+        this.required = Preconditions.requirePositive(required, "required");
+        this.replicas = Preconditions.requirePositive(replicas, "replicas");
+        if (required > replicas) {
+            throw new IllegalArgumentException("required must be <= replicas, but was " + required + " of " + replicas);
+        }
+    }
+
+    @Override
+    public boolean onFork(StructuredTaskScope.Subtask<? extends T> subtask) {
+        if (forked.incrementAndGet() > replicas) {
+            throw new IllegalStateException("a quorum of " + required + " of " + replicas + " cannot fork more than " + replicas + " subtasks");
+        }
+        return false;
+    }
+
+    @Override
+    public boolean onComplete(StructuredTaskScope.Subtask<? extends T> subtask) {
+        return switch (subtask.state()) {
+            case SUCCESS -> succeeded.incrementAndGet() >= required;
+            case FAILED -> {
+                firstFailure.compareAndSet(null, subtask.exception());
+                yield replicas - failed.incrementAndGet() < required; // not enough replicas left to reach the quorum
+            }
+            case UNAVAILABLE -> false;
+        };
+    }
+
+    @Override
+    public Void result() {
+        int successes = succeeded.get();
+        if (successes < required) {
+            throw new QuorumNotReachedException(required, replicas, successes, firstFailure.get());
+        }
+        return null;
+    }
+}
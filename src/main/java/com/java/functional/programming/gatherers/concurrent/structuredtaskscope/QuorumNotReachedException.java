@@ -0,0 +1,11 @@
+package com.java.functional.programming.gatherers.concurrent.structuredtaskscope;
+
+/**
+ * Thrown when fewer than the required subtasks of a quorum scope succeeded. The cause is the first failure, if any.
+ * */
+public class QuorumNotReachedException extends RuntimeException {
+
+    public QuorumNotReachedException(int required, int replicas, int succeeded, Throwable cause) {
+        super(required + " of " + replicas + " subtasks had to succeed, but " + succeeded + " did", cause);
+    }
+}
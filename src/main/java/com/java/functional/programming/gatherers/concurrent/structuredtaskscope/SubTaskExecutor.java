@@ -0,0 +1,31 @@
+package com.java.functional.programming.gatherers.concurrent.structuredtaskscope;
+
+import com.java.functional.programming.gatherers.concurrent.bulkhead.Bulkhead;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Alternative implementation of SubTaskExecutor in com.java.functional.programming.gatherers.concurrent.executorservice
+ *
+ * public interface SubTaskExecutor {
+ *     <T> SubTaskResult<T> execute(Callable<T> callable);
+ * }
+ *
+ * A SubTaskExecutor is confined to the thread that opened it, and must be closed by that thread.
+ * */
+public interface SubTaskExecutor extends AutoCloseable {
+    <T> SubTaskResult<T> execute(Callable<T> callable);
+
+    /**
+     * executes the callable in a slot of the bulkhead of its backend, see Bulkhead.
+     * */
+    default <T> SubTaskResult<T> execute(Bulkhead bulkhead, Callable<T> callable) {
+        return this.execute(bulkhead.protect(callable));
+    }
+
+    /**
+     * Closes the underlying scope, cancelling any subtask which is still running. Does not throw checked exceptions.
+     * */
+    @Override
+    void close();
+}
@@ -0,0 +1,167 @@
+package com.java.functional.programming.gatherers.concurrent.structuredtaskscope;
+
+import com.java.functional.programming.gatherers.concurrent.Preconditions;
+import com.java.functional.programming.gatherers.concurrent.deadline.Deadline;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The joiner the scope is opened with decides what SubTaskResult.get() returns:
+ *  - awaitAllSuccessfulOrThrow: the subtask's own result. The first failure cancels the scope and is what every get() fails with.
+ *  - anySuccessful (race): the subtasks are replicas of the same call. The first successful result cancels the others
+ *    and get() on any of them returns that winning result. Fails only when every replica failed.
+ *  - quorum(required, replicas): the scope is cancelled once required subtasks succeeded. get() returns the subtask's own result,
+ *    a subtask which failed or was cancelled by then goes to its error handler. Fails with QuorumNotReachedException when too many failed.
+ *  - awaitAll (partial results): waits for every subtask whatever its outcome and never fails as a whole.
+ *    get() returns the subtask's own result, a failed subtask, or one still running when the timeout expired, goes to its error handler.
+ * With onError(...) a caller turns a missing result into a default, which is how partial results are aggregated.
+ * Timeouts are capped by the remaining time of the current Deadline, a nested scope never outlives its caller.
+ * */
+public class SubTaskExecutorImpl implements SubTaskExecutor, AutoCloseable {
+
+    private enum Policy {
+        ALL_SUCCESSFUL, ANY_SUCCESSFUL, QUORUM, ALL_COMPLETE
+    }
+
+    private final StructuredTaskScope scope;
+    private final Policy policy;
+    private final AtomicBoolean joined = new AtomicBoolean(false);
+    private Object joinResult; // the winning result of a race
+    private RuntimeException joinFailure; // thrown by every get() once the scope failed as a whole
+
+    public SubTaskExecutorImpl(StructuredTaskScope scope) {
+        this(scope, Policy.ALL_SUCCESSFUL);
+    }
+
+    private SubTaskExecutorImpl(StructuredTaskScope scope, Policy policy) {
+        this.scope = Objects.requireNonNull(scope, "scope");
+        this.policy = policy;
+    }
+
+    /**
+     * Open a scope that waits for all subtasks, cancels on first failure, throws on failure.
+     * */
+    public static SubTaskExecutor openAwaitAllSuccessfulOrThrow() {
+        var scope = StructuredTaskScope.open(StructuredTaskScope.Joiner.awaitAllSuccessfulOrThrow());
+        return new SubTaskExecutorImpl(scope);
+    }
+
+    /**
+     * Same policy but with a timeout budget for all subtasks in this scope.
+     * */
+    public static SubTaskExecutor openAwaitAllSuccessfulOrThrow(Duration timeout) {
+        var budget = budget(timeout);
+        var scope = StructuredTaskScope.open(StructuredTaskScope.Joiner.awaitAllSuccessfulOrThrow(), cfg -> cfg.withTimeout(budget));
+        return new SubTaskExecutorImpl(scope);
+    }
+
+    /**
+     * Open a scope that races its subtasks (replicas of the same call): the first successful result wins, the others are cancelled.
+     * */
+    public static SubTaskExecutor openAnySuccessful() {
+        var scope = StructuredTaskScope.open(StructuredTaskScope.Joiner.anySuccessfulResultOrThrow());
+        return new SubTaskExecutorImpl(scope, Policy.ANY_SUCCESSFUL);
+    }
+
+    public static SubTaskExecutor openAnySuccessful(Duration timeout) {
+        var budget = budget(timeout);
+        var scope = StructuredTaskScope.open(StructuredTaskScope.Joiner.anySuccessfulResultOrThrow(), cfg -> cfg.withTimeout(budget));
+        return new SubTaskExecutorImpl(scope, Policy.ANY_SUCCESSFUL);
+    }
+
+    /**
+     * Open a scope for an N-of-M quorum: at most replicas subtasks are forked, it is done once required of them succeeded.
+     * */
+    public static SubTaskExecutor openQuorum(int required, int replicas) {
+        var scope = StructuredTaskScope.open(new QuorumJoiner<>(required, replicas));
+        return new SubTaskExecutorImpl(scope, Policy.QUORUM);
+    }
+
+    public static SubTaskExecutor openQuorum(int required, int replicas, Duration timeout) {
+        var joiner = new QuorumJoiner<>(required, replicas);
+        var budget = budget(timeout);
+        var scope = StructuredTaskScope.open(joiner, cfg -> cfg.withTimeout(budget));
+        return new SubTaskExecutorImpl(scope, Policy.QUORUM);
+    }
+
+    /**
+     * Open a scope that waits for all subtasks to complete, successfully or not, so the caller can aggregate partial results.
+     * */
+    public static SubTaskExecutor openAwaitAll() {
+        var scope = StructuredTaskScope.open(StructuredTaskScope.Joiner.awaitAll());
+        return new SubTaskExecutorImpl(scope, Policy.ALL_COMPLETE);
+    }
+
+    /**
+     * Same policy, but the subtasks still running when the timeout expires are cancelled and reported as missing instead of failing the scope.
+     * */
+    public static SubTaskExecutor openAwaitAll(Duration timeout) {
+        var budget = budget(timeout);
+        var scope = StructuredTaskScope.open(StructuredTaskScope.Joiner.awaitAll(), cfg -> cfg.withTimeout(budget));
+        return new SubTaskExecutorImpl(scope, Policy.ALL_COMPLETE);
+    }
+
+    private static Duration budget(Duration timeout) {
+        Preconditions.requirePositive(timeout, "timeout");
+        Deadline.throwIfExpired("opening a subtask scope");
+        return Deadline.remainingOr(timeout);
+    }
+
+    @Override
+    public <T> SubTaskResult<T> execute(Callable<T> callable) {
+        Objects.requireNonNull(callable, "callable");
+        Deadline.throwIfExpired("forking a subtask");
+        StructuredTaskScope.Subtask<T> subtask = scope.fork(callable); // forks a virtual thread by default, it inherits the current deadline
+        return new SubTaskResultImpl<>(this, subtask);
+    }
+
+    void joinIfNeeded() {
+        if (joined.compareAndSet(false, true)) {
+            try {
+                joinResult = scope.join();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                joinFailure = new RuntimeException("Interrupted while joining subtasks", ie);
+            } catch (StructuredTaskScope.FailedException fe) {
+                var cause = fe.getCause();
+                joinFailure = (cause instanceof RuntimeException re) ? re : new RuntimeException("Subtask failed", cause);
+            } catch (StructuredTaskScope.TimeoutException te) {
+                if (policy != Policy.ALL_COMPLETE) { // partial results: the unfinished subtasks are reported as missing
+                    joinFailure = new RuntimeException("Timeout while joining subtasks", te);
+                }
+            }
+        }
+        if (joinFailure != null) {
+            throw joinFailure;
+        }
+    }
+
+    /**
+     * the result of the given subtask according to the policy, once the scope is joined. Throws what its error handler gets.
+     * */
+    @SuppressWarnings("unchecked")
+    <T> T resultOf(StructuredTaskScope.Subtask<T> subtask) throws Throwable {
+        this.joinIfNeeded();
+        if (policy == Policy.ANY_SUCCESSFUL) {
+            return (T) joinResult;
+        }
+        return switch (subtask.state()) {
+            case SUCCESS -> subtask.get();
+            case FAILED -> throw subtask.exception();
+            case UNAVAILABLE -> throw policy == Policy.QUORUM
+                    ? new CancellationException("subtask was cancelled, the quorum was decided without it")
+                    : new TimeoutException("subtask did not complete within the timeout");
+        };
+    }
+
+    @Override
+    public void close() {
+        scope.close();
+    }
+}
@@ -1,4 +1,4 @@
-package com.java.functional.programming.streamgatherers.concurrency.util.structuredtaskscope;
+package com.java.functional.programming.gatherers.concurrent.structuredtaskscope;
 
 import java.util.function.Function;
 
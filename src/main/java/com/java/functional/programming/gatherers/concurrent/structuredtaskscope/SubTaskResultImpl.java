@@ -1,4 +1,4 @@
-package com.java.functional.programming.streamgatherers.concurrency.util.structuredtaskscope;
+package com.java.functional.programming.gatherers.concurrent.structuredtaskscope;
 
 import java.util.Objects;
 import java.util.concurrent.StructuredTaskScope;
@@ -22,8 +22,7 @@ public class SubTaskResultImpl<T> implements SubTaskResult<T> {
     @Override
     public T get() {
         try {
-            owner.joinIfNeeded();
-            return subtask.get();
+            return owner.resultOf(subtask); // joins the scope on the first call
         } catch (Throwable t) {
             return errorHandler.apply(t);
         }
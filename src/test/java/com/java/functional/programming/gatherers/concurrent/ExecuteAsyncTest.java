@@ -0,0 +1,95 @@
+package com.java.functional.programming.gatherers.concurrent;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The async gatherer must bound the stages in flight, emit in completion order, and cancel the in flight stages when it fails.
+ * */
+@Slf4j
+public class ExecuteAsyncTest {
+
+    @Test
+    public void executeAsyncRespectsMaxConcurrencyTest() {
+        var inFlight = new AtomicInteger();
+        var maxInFlight = new AtomicInteger();
+
+        List<Integer> results = IntStream.rangeClosed(1, 100)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeAsync(5, (Integer id) -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return CompletableFuture.supplyAsync(() -> {
+                        inFlight.decrementAndGet();
+                        return id;
+                    }, CompletableFuture.delayedExecutor(5, TimeUnit.MILLISECONDS));
+                }))
+                .toList();
+
+        assertEquals(IntStream.rangeClosed(1, 100).boxed().toList(), results.stream().sorted().toList());
+        assertTrue(maxInFlight.get() <= 5, "max in flight " + maxInFlight.get());
+    }
+
+    @Test
+    public void executeAsyncEmitsInCompletionOrderTest() {
+        List<Integer> results = IntStream.rangeClosed(1, 5)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeAsync(5, (Integer id) ->
+                        CompletableFuture.supplyAsync(() -> id, CompletableFuture.delayedExecutor((6 - id) * 50L, TimeUnit.MILLISECONDS))))
+                .toList();
+
+        assertEquals(List.of(5, 4, 3, 2, 1), results);
+    }
+
+    @Test
+    public void sharedStageEmitsOneResultPerElementTest() {
+        var stages = new ConcurrentHashMap<Integer, CompletableFuture<Integer>>(); // e.g. an async cache, repeated keys share one stage
+        var maxStages = new AtomicInteger();
+
+        List<Integer> results = IntStream.rangeClosed(1, 12)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeAsync(4, (Integer id) -> {
+                    var stage = stages.computeIfAbsent(id % 3, key ->
+                            CompletableFuture.supplyAsync(() -> key, CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS)));
+                    maxStages.accumulateAndGet(stages.size(), Math::max);
+                    return stage;
+                }))
+                .toList();
+
+        assertEquals(IntStream.rangeClosed(1, 12).map(id -> id % 3).sorted().boxed().toList(), results.stream().sorted().toList());
+        assertEquals(3, maxStages.get());
+    }
+
+    @Test
+    public void executeAsyncFailsFastAndCancelsInFlightStagesTest() {
+        var pending = new CopyOnWriteArrayList<CompletableFuture<Integer>>();
+
+        var exception = assertThrows(RuntimeException.class, () -> IntStream.rangeClosed(1, 10)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeAsync(5, (Integer id) -> {
+                    if (id == 3) {
+                        return CompletableFuture.<Integer>failedFuture(new IllegalStateException("product service down"));
+                    }
+                    var never = new CompletableFuture<Integer>(); // a hung request
+                    pending.add(never);
+                    return never;
+                }))
+                .toList());
+
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertTrue(pending.stream().allMatch(CompletableFuture::isCancelled));
+        assertThrows(IllegalArgumentException.class, () -> GatherersUtilWithExecutorService.executeAsync(0, (Integer id) -> CompletableFuture.completedFuture(id)));
+    }
+}
@@ -0,0 +1,85 @@
+package com.java.functional.programming.gatherers.concurrent;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Gatherer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Once downstream rejects a push (e.g. limit(n) received its n results) the tasks still in flight are cancelled right away,
+ * from the same integrate call, not when (or if) finish runs.
+ * The gatherers are driven through the Gatherer contract directly, with a downstream that accepts 3 results.
+ * */
+@Slf4j
+public class ExecuteConcurrentCancellationTest {
+
+    private static final Duration MAX_CANCELLATION_LATENCY = Duration.ofMillis(300);
+
+    private final AtomicInteger started = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Long> interruptedAt = new ConcurrentLinkedQueue<>();
+
+    /**
+     * ids 0..2 answer right away, every other id hangs (e.g. a slow backend) until it is interrupted.
+     * */
+    private Integer call(Integer id) {
+        if (id < 3) {
+            return id;
+        }
+        started.incrementAndGet();
+        try {
+            Thread.sleep(Duration.ofSeconds(30));
+        } catch (InterruptedException e) {
+            interruptedAt.add(System.nanoTime());
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        return id;
+    }
+
+    @Test
+    public void executeConcurrentCancelsOnRejectTest() throws InterruptedException {
+        this.assertCancelledPromptly(GatherersUtilWithExecutorService.executeConcurrent(20, this::call));
+    }
+
+    @Test
+    public void executeConcurrentDelayErrorCancelsOnRejectTest() throws InterruptedException {
+        this.assertCancelledPromptly(GatherersUtilWithExecutorService.executeConcurrentDelayError(20, this::call));
+    }
+
+    @Test
+    public void executeConcurrentReorderWindowCancelsOnRejectTest() throws InterruptedException {
+        this.assertCancelledPromptly(GatherersUtilWithExecutorService.executeConcurrentReorderWindow(20, 20, this::call));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertCancelledPromptly(Gatherer<Integer, ?, Integer> gatherer) throws InterruptedException {
+        var typed = (Gatherer<Integer, Object, Integer>) gatherer;
+        var state = typed.initializer().get();
+        var pushed = new AtomicInteger();
+        Gatherer.Downstream<Integer> limit3 = result -> pushed.incrementAndGet() < 3;
+
+        int id = 0;
+        boolean more = true;
+        // ids 3, 4, ... fill the window, so the fast results get pushed while slow tasks are in flight
+        Function<Integer, Integer> order = i -> i < 17 ? i + 3 : i - 17;
+        while (more && id < 1000) {
+            more = typed.integrator().integrate(state, order.apply(id++), limit3);
+        }
+        long rejectedAt = System.nanoTime();
+
+        Thread.sleep(MAX_CANCELLATION_LATENCY.toMillis());
+        log.info("{} slow tasks started, {} interrupted, last after {} ms", started.get(), interruptedAt.size(),
+                interruptedAt.stream().mapToLong(at -> Duration.ofNanos(at - rejectedAt).toMillis()).max().orElse(-1));
+        assertEquals(3, pushed.get());
+        assertTrue(started.get() > 0);
+        assertEquals(started.get(), interruptedAt.size()); // every slow call was cancelled, without finish being called
+        assertTrue(interruptedAt.stream().allMatch(at -> at - rejectedAt < MAX_CANCELLATION_LATENCY.toNanos()));
+    }
+}
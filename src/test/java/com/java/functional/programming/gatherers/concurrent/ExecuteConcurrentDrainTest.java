@@ -0,0 +1,64 @@
+package com.java.functional.programming.gatherers.concurrent;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * With a window much larger than the stream, results must still reach downstream while upstream is producing,
+ * not all at once when the stream finishes.
+ * */
+@Slf4j
+public class ExecuteConcurrentDrainTest {
+
+    @Test
+    public void completedResultsAreEmittedBeforeWindowFillsTest() {
+        var produced = new AtomicInteger();
+        List<Integer> producedWhenEmitted = new CopyOnWriteArrayList<>();
+
+        List<Integer> results = IntStream.range(0, 10)
+                .boxed()
+                .peek(id -> {
+                    sleep(50); // slow upstream, the tasks (5 ms) complete long before the next element arrives
+                    produced.incrementAndGet();
+                })
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(1000, id -> {
+                    sleep(5);
+                    return id;
+                }))
+                .peek(id -> producedWhenEmitted.add(produced.get()))
+                .toList();
+
+        log.info("upstream elements produced when each result was emitted: {}", producedWhenEmitted);
+        assertEquals(10, results.size());
+        // the result of element n is emitted by the integrate call of element n + 1, i.e. while upstream is still producing
+        assertTrue(producedWhenEmitted.getFirst() < 10, "first result only emitted in finish");
+        assertEquals(8, producedWhenEmitted.stream().filter(count -> count < 10).count());
+    }
+
+    @Test
+    public void drainingEmitsEveryResultOnceTest() {
+        List<Integer> results = IntStream.range(0, 100)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(1000, id -> id))
+                .toList();
+
+        assertEquals(IntStream.range(0, 100).boxed().toList(), results.stream().sorted().toList());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
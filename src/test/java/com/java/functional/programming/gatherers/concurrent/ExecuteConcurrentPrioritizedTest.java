@@ -0,0 +1,102 @@
+package com.java.functional.programming.gatherers.concurrent;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Gatherer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A free slot goes to the most urgent buffered element, but aging must let a low priority element through eventually.
+ * */
+@Slf4j
+public class ExecuteConcurrentPrioritizedTest {
+
+    record Request(int id, int tier) {
+    }
+
+    /**
+     * Drives the gatherer through its contract directly: the first request holds the only slot until every request was integrated,
+     * so all the others are buffered when the slot frees up, however the threads are scheduled.
+     * */
+    @Test
+    public void highPriorityElementsOvertakeBufferedBackfillTest() throws InterruptedException {
+        var started = new CopyOnWriteArrayList<Request>();
+        var firstStarted = new CountDownLatch(1);
+        var allIntegrated = new CountDownLatch(1);
+        var requests = IntStream.rangeClosed(1, 55)
+                .mapToObj(id -> new Request(id, id > 50 ? 10 : 0)) // 50 backfill requests, then 5 premium ones
+                .toList();
+        Function<Request, Request> mapper = request -> {
+            started.add(request);
+            if (request.id() == 1) {
+                firstStarted.countDown();
+                try {
+                    allIntegrated.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return request;
+        };
+        var results = new CopyOnWriteArrayList<Request>();
+        Gatherer.Downstream<Request> downstream = results::add;
+        var state = new ExecuteConcurrentPrioritized<>(1, 100, Request::tier, Duration.ofHours(1), mapper, Executors.newVirtualThreadPerTaskExecutor());
+
+        requests.forEach(request -> assertTrue(state.integrate(request, downstream)));
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS)); // its task runs on its own thread, it may not have started yet
+        assertEquals(List.of(requests.getFirst()), started); // the others are buffered behind the busy slot
+        allIntegrated.countDown();
+        state.finish(downstream);
+
+        assertEquals(55, results.size());
+        log.info("started: {}", started.stream().map(Request::id).toList());
+        started.subList(1, 6).forEach(request -> assertEquals(10, request.tier()));
+        started.subList(6, 55).forEach(request -> assertEquals(0, request.tier()));
+    }
+
+    @Test
+    public void agingPreventsStarvationTest() {
+        var started = new CopyOnWriteArrayList<Request>();
+        var requests = IntStream.rangeClosed(1, 101)
+                .mapToObj(id -> new Request(id, id == 2 ? 0 : 1)) // one backfill request within a steady flow of premium ones
+                .toList();
+
+        requests.stream()
+                .gather(GatherersUtilWithExecutorService.executeConcurrentPrioritized(1, 10, Request::tier, Duration.ofMillis(5), recording(started)))
+                .toList();
+
+        int position = started.stream().map(Request::id).toList().indexOf(2);
+        log.info("backfill request started at position {}", position);
+        assertTrue(position < 20, "started at " + position);
+    }
+
+    @Test
+    public void invalidArgumentsAreRejectedEagerlyTest() {
+        assertThrows(IllegalArgumentException.class, () -> GatherersUtilWithExecutorService.executeConcurrentPrioritized(1, 0, (Request r) -> r.tier(), Duration.ofMillis(5), Function.identity()));
+        assertThrows(IllegalArgumentException.class, () -> GatherersUtilWithExecutorService.executeConcurrentPrioritized(1, 10, (Request r) -> r.tier(), Duration.ZERO, Function.identity()));
+    }
+
+    private static Function<Request, Request> recording(List<Request> started) {
+        return request -> {
+            started.add(request);
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return request;
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package com.java.functional.programming.gatherers.concurrent;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Results come out in completion order, but an element is never emitted more than reorderWindow positions away from its encounter index.
+ * */
+@Slf4j
+public class ExecuteConcurrentReorderWindowTest {
+
+    @Test
+    public void elementsStayWithinReorderWindowTest() {
+        int reorderWindow = 5;
+        List<Integer> results = IntStream.range(0, 200)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrentReorderWindow(10, reorderWindow, randomSleep(20)))
+                .toList();
+
+        assertEquals(200, results.size());
+        for (int position = 0; position < results.size(); position++) {
+            int displacement = Math.abs(position - results.get(position));
+            assertTrue(displacement < reorderWindow, "element " + results.get(position) + " emitted at position " + position);
+        }
+        assertNotEquals(IntStream.range(0, 200).boxed().toList(), results); // local reordering did happen
+    }
+
+    @Test
+    public void fastResultsAreNotBlockedBySlowHeadTest() {
+        List<Integer> results = IntStream.range(0, 4)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrentReorderWindow(4, 4, sleep(id -> id == 0 ? 300 : 10)))
+                .toList();
+
+        assertEquals(0, results.getLast()); // mapConcurrent would emit 0 first, after waiting for it
+    }
+
+    @Test
+    public void inFlightTasksAreBoundedByReorderWindowTest() {
+        var inFlight = new AtomicInteger();
+        var maxInFlight = new AtomicInteger();
+        Function<Integer, Integer> mapper = id -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                return randomSleep(10).apply(id);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        };
+
+        long count = IntStream.range(0, 100)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrentReorderWindow(50, 3, mapper))
+                .count();
+
+        assertEquals(100, count);
+        assertTrue(maxInFlight.get() <= 3, "max in flight was " + maxInFlight.get());
+    }
+
+    @Test
+    public void reorderWindowOfOneKeepsEncounterOrderTest() {
+        List<Integer> results = IntStream.range(0, 20)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrentReorderWindow(10, 1, randomSleep(5)))
+                .toList();
+
+        assertEquals(IntStream.range(0, 20).boxed().toList(), results);
+    }
+
+    @Test
+    public void invalidReorderWindowIsRejectedTest() {
+        assertThrows(IllegalArgumentException.class, () -> GatherersUtilWithExecutorService.executeConcurrentReorderWindow(10, 0, Function.identity()));
+    }
+
+    private static Function<Integer, Integer> randomSleep(int maxMillis) {
+        return sleep(id -> ThreadLocalRandom.current().nextInt(maxMillis));
+    }
+
+    private static Function<Integer, Integer> sleep(Function<Integer, Integer> millis) {
+        return id -> {
+            try {
+                Thread.sleep(millis.apply(id));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            return id;
+        };
+    }
+}
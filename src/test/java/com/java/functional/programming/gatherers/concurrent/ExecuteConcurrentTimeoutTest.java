@@ -0,0 +1,70 @@
+package com.java.functional.programming.gatherers.concurrent;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A hung call must not hold a concurrency slot forever: it is cancelled once its deadline passes and fails the stream.
+ * */
+@Slf4j
+public class ExecuteConcurrentTimeoutTest {
+
+    @Test
+    public void hungTaskIsCancelledAfterTimeoutTest() throws InterruptedException {
+        var hungTaskInterrupted = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        var exception = assertThrows(RuntimeException.class, () -> IntStream.rangeClosed(1, 10)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(2, Duration.ofMillis(200), (Integer id) -> {
+                    if (id == 3) {
+                        try {
+                            Thread.sleep(60_000); // hung call
+                        } catch (InterruptedException e) {
+                            hungTaskInterrupted.countDown();
+                        }
+                    }
+                    return id;
+                }))
+                .toList());
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+        assertTrue(elapsedMillis < 5_000, "took " + elapsedMillis + " ms");
+        assertTrue(hungTaskInterrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void tasksWithinTimeoutAreNotAffectedTest() {
+        long count = IntStream.rangeClosed(1, 50)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(5, Duration.ofSeconds(5), (Integer id) -> {
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return id;
+                }))
+                .count();
+
+        assertEquals(50, count);
+    }
+
+    @Test
+    public void invalidTimeoutIsRejectedTest() {
+        assertThrows(IllegalArgumentException.class, () -> GatherersUtilWithExecutorService.executeConcurrent(5, Duration.ofMillis(-1), (Integer id) -> id));
+        assertThrows(NullPointerException.class, () -> GatherersUtilWithExecutorService.executeConcurrent(5, (Duration) null, (Integer id) -> id));
+    }
+}
@@ -0,0 +1,102 @@
+package com.java.functional.programming.gatherers.concurrent;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * These tests do not need the external service, the I/O call is simulated with a sleep.
+ * */
+@Slf4j
+public class GatherersUtilWithExecutorServiceTest {
+
+    @Test
+    public void executeConcurrentEmitsInCompletionOrderTest() {
+        List<Integer> results = IntStream.rangeClosed(1, 5)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(5, sleep(id -> id == 1 ? 300 : 10)))
+                .toList();
+
+        assertEquals(5, results.size());
+        assertEquals(1, results.getLast()); // the slow element does not block the fast ones
+    }
+
+    @Test
+    public void executeConcurrentRespectsMaxConcurrencyTest() {
+        var inFlight = new AtomicInteger();
+        var maxInFlight = new AtomicInteger();
+        Function<Integer, Integer> mapper = id -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                return sleep(i -> 20).apply(id);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        };
+
+        long count = IntStream.rangeClosed(1, 50)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(4, mapper))
+                .count();
+
+        assertEquals(50, count);
+        assertTrue(maxInFlight.get() <= 4, "max in flight was " + maxInFlight.get());
+    }
+
+    @Test
+    public void executeConcurrentFailsFastTest() {
+        var exception = assertThrows(RuntimeException.class, () -> IntStream.rangeClosed(1, 20)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(3, (Integer id) -> {
+                    if (id == 2) throw new IllegalStateException("product " + id + " not found");
+                    return id;
+                }))
+                .toList());
+
+        assertEquals("product 2 not found", exception.getCause().getMessage());
+    }
+
+    @Test
+    public void executeConcurrentDelayErrorEmitsSuccessfulResultsFirstTest() {
+        var emitted = new AtomicInteger();
+        var exception = assertThrows(RuntimeException.class, () -> IntStream.rangeClosed(1, 20)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrentDelayError(3, (Integer id) -> {
+                    if (id % 5 == 0) throw new IllegalStateException("product " + id + " not found");
+                    return id;
+                }))
+                .forEach(id -> emitted.incrementAndGet()));
+
+        assertEquals(16, emitted.get());
+        assertEquals(4, exception.getSuppressed().length);
+    }
+
+    @Test
+    public void invalidArgumentsAreRejectedEagerlyTest() {
+        assertThrows(IllegalArgumentException.class, () -> GatherersUtilWithExecutorService.executeConcurrent(0, Function.identity()));
+        assertThrows(IllegalArgumentException.class, () -> GatherersUtilWithExecutorService.executeConcurrentDelayError(-1, Function.identity()));
+        assertThrows(NullPointerException.class, () -> GatherersUtilWithExecutorService.executeConcurrent(10, null));
+        assertThrows(IllegalArgumentException.class, () -> GatherersUtilWithStructuredTaskScope.aggregateConcurrentWithTimeout(10, (t, executor) -> t, Duration.ZERO));
+    }
+
+    private static Function<Integer, Integer> sleep(Function<Integer, Integer> millis) {
+        return id -> {
+            try {
+                Thread.sleep(millis.apply(id));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            return id;
+        };
+    }
+}
@@ -0,0 +1,106 @@
+package com.java.functional.programming.gatherers.concurrent.batching;
+
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrent single id lookups end up in a few bulk calls, which are bounded by maxBatchSize and sent at the latest after linger.
+ * */
+@Slf4j
+public class BatchLoaderTest {
+
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    /**
+     * simulated bulk endpoint, e.g. GET /products?ids=1,2,3: one round-trip whatever the number of ids.
+     * */
+    private Map<Integer, String> getProducts(List<Integer> ids) {
+        batchSizes.add(ids.size());
+        sleep(20);
+        return ids.stream().collect(Collectors.toMap(Function.identity(), id -> "product-" + id));
+    }
+
+    @Test
+    public void concurrentLookupsAreBatchedTest() {
+        var getProduct = new BatchLoader<>(this::getProducts, 50, Duration.ofMillis(10));
+
+        List<String> products = IntStream.range(0, 1000)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(1000, getProduct))
+                .toList();
+
+        log.info("1000 lookups in {} bulk calls: {}", getProduct.getBatchCount(), batchSizes);
+        assertEquals(IntStream.range(0, 1000).mapToObj(id -> "product-" + id).sorted().toList(), products.stream().sorted().toList());
+        assertEquals(1000, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 50));
+        assertTrue(getProduct.getBatchCount() <= 100, getProduct.getBatchCount() + " bulk calls");
+    }
+
+    @Test
+    public void partialBatchIsSentAfterLingerTest() {
+        var getProduct = new BatchLoader<>(this::getProducts, 50, Duration.ofMillis(50));
+
+        long start = System.nanoTime();
+        assertEquals("product-7", getProduct.apply(7));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertTrue(elapsedMillis >= 50, "sent after " + elapsedMillis + " ms");
+        assertEquals(List.of(1), batchSizes);
+    }
+
+    @Test
+    public void duplicateKeysWithinBatchShareOneValueTest() {
+        var getProduct = new BatchLoader<>(this::getProducts, 50, Duration.ofMillis(20));
+
+        var first = getProduct.load(3);
+        var second = getProduct.load(3);
+
+        assertEquals("product-3", first.join());
+        assertEquals(first, second);
+        assertEquals(List.of(1), batchSizes);
+    }
+
+    @Test
+    public void missingKeyAndFailedBulkCallFailTheCallersTest() {
+        var partial = new BatchLoader<Integer, String>(ids -> Map.of(1, "product-1"), 10, Duration.ofMillis(5));
+        CompletableFuture<String> missing = partial.load(2);
+        assertEquals("product-1", partial.apply(1));
+        assertThrows(NoSuchElementException.class, () -> partial.apply(2));
+        assertTrue(missing.isCompletedExceptionally());
+
+        var failing = new BatchLoader<Integer, String>(ids -> {
+            throw new IllegalStateException("product service unavailable");
+        }, 10, Duration.ofMillis(5));
+        assertThrows(IllegalStateException.class, () -> failing.apply(1));
+    }
+
+    @Test
+    public void invalidArgumentsAreRejectedTest() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchLoader<>(this::getProducts, 0, Duration.ofMillis(5)));
+        assertThrows(IllegalArgumentException.class, () -> new BatchLoader<>(this::getProducts, 10, Duration.ZERO));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.java.functional.programming.gatherers.concurrent.budget;
+
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The budget must bound the subtasks of all elements together, and must not deadlock when the elements hold every permit.
+ * */
+@Slf4j
+public class FanOutBudgetTest {
+
+    @Test
+    public void budgetBoundsInFlightSubtasksAcrossElementsTest() {
+        var budget = new FanOutBudget(4);
+        var inFlight = new AtomicInteger();
+        var maxInFlight = new AtomicInteger();
+        long start = System.nanoTime();
+
+        List<Integer> results = IntStream.rangeClosed(1, 20)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.aggregateConcurrent(10, budget, (id, subTaskExecutor) -> {
+                    var subtasks = IntStream.rangeClosed(1, 3)
+                            .mapToObj(i -> subTaskExecutor.execute(() -> {
+                                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                                try {
+                                    Thread.sleep(10);
+                                } finally {
+                                    inFlight.decrementAndGet();
+                                }
+                                return 1;
+                            }))
+                            .toList();
+                    return subtasks.stream().mapToInt(subtask -> subtask.get()).sum();
+                }))
+                .toList();
+
+        log.info("max in flight subtasks: {}", maxInFlight.get());
+        assertEquals(20, results.size());
+        results.forEach(result -> assertEquals(3, result));
+        assertTrue(maxInFlight.get() <= 4, "max in flight " + maxInFlight.get());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 10_000);
+        assertEquals(4, budget.getAvailablePermits());
+    }
+
+    @Test
+    public void reservedPermitIsReturnedAfterItsLastSubtaskTest() throws Exception {
+        var budget = new FanOutBudget(1);
+        var subtaskStarted = new CountDownLatch(1);
+        var subtaskMayFinish = new CountDownLatch(1);
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var lease = budget.reserve();
+            assertEquals(0, budget.getAvailablePermits());
+            var future = executor.submit(lease.bound(() -> {
+                subtaskStarted.countDown();
+                subtaskMayFinish.await();
+                return 1;
+            }));
+            assertTrue(subtaskStarted.await(5, TimeUnit.SECONDS)); // ran on the reserved permit, no shared one was left
+
+            lease.close();
+            assertEquals(0, budget.getAvailablePermits());
+            subtaskMayFinish.countDown();
+            assertEquals(1, future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, budget.getAvailablePermits());
+        assertThrows(IllegalArgumentException.class, () -> new FanOutBudget(0));
+    }
+}
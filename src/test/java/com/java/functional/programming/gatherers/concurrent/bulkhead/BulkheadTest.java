@@ -0,0 +1,93 @@
+package com.java.functional.programming.gatherers.concurrent.bulkhead;
+
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
+import com.java.functional.programming.gatherers.concurrent.degraded.FallbackPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A bulkhead must bound the calls to its own backend, and a slow backend must not drag down the calls to the others.
+ * */
+@Slf4j
+public class BulkheadTest {
+
+    record ProductAggregate(String productName, int rating, boolean ratingMissing) {
+    }
+
+    @Test
+    public void callsBeyondQueueAreRejectedTest() throws Exception {
+        var bulkhead = new Bulkhead("rating", BulkheadPolicy.of(1, 1));
+        var running = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var first = executor.submit(bulkhead.protect(() -> {
+                running.countDown();
+                release.await();
+                return 1;
+            }));
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            var queued = executor.submit(bulkhead.protect(() -> 2));
+            while (bulkhead.getQueuedCalls() == 0) {
+                Thread.sleep(1);
+            }
+
+            assertThrows(BulkheadFullException.class, () -> bulkhead.call(() -> 3));
+
+            release.countDown();
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+            assertEquals(2, queued.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, bulkhead.getRejectedCount());
+        assertEquals(0, bulkhead.getActiveCalls());
+        assertThrows(IllegalArgumentException.class, () -> BulkheadPolicy.of(1, -1));
+    }
+
+    @Test
+    public void slowBackendDoesNotStarveOtherBackendTest() {
+        var products = new Bulkhead("product", BulkheadPolicy.of(10, 100));
+        var ratings = new Bulkhead("rating", BulkheadPolicy.of(2, 2));
+        long start = System.nanoTime();
+
+        List<ProductAggregate> aggregates = IntStream.rangeClosed(1, 50)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.aggregateConcurrentDegraded(
+                        10,
+                        products.protect((Integer id) -> "product-" + id), FallbackPolicy.of(Duration.ofSeconds(5), "unknown"),
+                        ratings.protect((Integer id) -> {
+                            try {
+                                Thread.sleep(300); // degraded rating service
+                            } catch (InterruptedException e) {
+                                throw new RuntimeException(e);
+                            }
+                            return id % 5 + 1;
+                        }), FallbackPolicy.of(Duration.ofSeconds(5), 0),
+                        (product, rating) -> {
+                            assertFalse(product.isMissing());
+                            if (rating.isMissing()) {
+                                assertInstanceOf(BulkheadFullException.class, rating.failure());
+                            }
+                            return new ProductAggregate(product.value(), rating.value(), rating.isMissing());
+                        }))
+                .toList();
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long withoutRating = aggregates.stream().filter(ProductAggregate::ratingMissing).count();
+        log.info("{} products in {} ms, {} without rating, {}", aggregates.size(), elapsedMillis, withoutRating, ratings);
+        assertEquals(50, aggregates.size());
+        assertTrue(withoutRating > 0);
+        assertTrue(elapsedMillis < 50 * 300 / 10, "took " + elapsedMillis + " ms"); // without the bulkhead all 50 ratings run, 10 at a time
+    }
+}
@@ -0,0 +1,168 @@
+package com.java.functional.programming.gatherers.concurrent.cache;
+
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * LRU bound, TTL, refresh-ahead and stampede protection, against a simulated backend that counts its calls.
+ * */
+@Slf4j
+public class CachedFunctionTest {
+
+    private final AtomicInteger backendCalls = new AtomicInteger();
+
+    private String getProduct(int id) {
+        int call = backendCalls.incrementAndGet();
+        sleep(50);
+        return "product-" + id + "#" + call;
+    }
+
+    @Test
+    public void repeatedLookupsAreServedFromCacheTest() {
+        var getProduct = CachedFunction.cache(this::getProduct, CachePolicy.of(100, Duration.ofMinutes(1)));
+
+        List<String> products = IntStream.range(0, 1000)
+                .map(i -> i % 10)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(1, getProduct))
+                .toList();
+
+        log.info("{}", getProduct.getStats());
+        assertEquals(1000, products.size());
+        assertEquals(10, backendCalls.get());
+        assertEquals(new CacheStats(990, 10, 0, 0), getProduct.getStats());
+    }
+
+    @Test
+    public void concurrentMissesLoadOnceTest() {
+        var getProduct = CachedFunction.cache(this::getProduct, CachePolicy.of(100, Duration.ofMinutes(1)));
+
+        List<String> products = IntStream.range(0, 200)
+                .map(i -> 42)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(200, getProduct))
+                .toList();
+
+        assertEquals(1, backendCalls.get());
+        assertEquals(1, products.stream().distinct().count());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvictedTest() {
+        var getProduct = CachedFunction.cache(this::getProduct, CachePolicy.of(2, Duration.ofMinutes(1)));
+
+        getProduct.apply(1);
+        getProduct.apply(2);
+        getProduct.apply(1); // 2 is now the least recently used
+        getProduct.apply(3);
+        getProduct.apply(1);
+        assertEquals(3, backendCalls.get());
+
+        getProduct.apply(2);
+        assertEquals(4, backendCalls.get());
+        assertEquals(2, getProduct.size());
+        assertEquals(2, getProduct.getStats().evictionCount());
+    }
+
+    @Test
+    public void expiredEntryIsLoadedAgainTest() {
+        var getProduct = CachedFunction.cache(this::getProduct, CachePolicy.of(10, Duration.ofMillis(100)));
+
+        String first = getProduct.apply(1);
+        assertEquals(first, getProduct.apply(1));
+        sleep(150);
+
+        assertTrue(!first.equals(getProduct.apply(1)));
+        assertEquals(2, backendCalls.get());
+    }
+
+    @Test
+    public void entryIsRefreshedAheadOfExpiryTest() {
+        var getProduct = CachedFunction.cache(this::getProduct, CachePolicy.of(10, Duration.ofMillis(400)).withRefreshAhead(Duration.ofMillis(300)));
+
+        String first = getProduct.apply(1);
+        sleep(150); // within the refresh-ahead window
+
+        long start = System.nanoTime();
+        assertEquals(first, getProduct.apply(1)); // current value, the reload runs in the background
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 20);
+        sleep(100);
+
+        String refreshed = getProduct.apply(1);
+        assertTrue(!first.equals(refreshed));
+        assertEquals(2, backendCalls.get());
+        assertEquals(1, getProduct.getStats().refreshCount());
+    }
+
+    @Test
+    public void refreshOfEvictedEntryDoesNotOverwriteNewerLoadTest() throws InterruptedException {
+        var refreshStarted = new CountDownLatch(1);
+        var refreshMayFinish = new CountDownLatch(1);
+        var getProduct = CachedFunction.cache((Integer id) -> {
+            if (Thread.currentThread().isVirtual()) { // the refresh, the test itself loads on its own thread
+                refreshStarted.countDown();
+                try {
+                    refreshMayFinish.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return "refreshed-product-" + id;
+            }
+            return "product-" + id + "#" + backendCalls.incrementAndGet();
+        }, CachePolicy.of(1, Duration.ofMillis(400)).withRefreshAhead(Duration.ofMillis(300)));
+
+        assertEquals("product-1#1", getProduct.apply(1));
+        sleep(150); // within the refresh-ahead window
+        assertEquals("product-1#1", getProduct.apply(1)); // starts the refresh
+        assertTrue(refreshStarted.await(5, TimeUnit.SECONDS));
+        assertEquals("product-2#2", getProduct.apply(2)); // evicts product 1 while it is being refreshed
+        assertEquals("product-1#3", getProduct.apply(1)); // a newer load
+
+        refreshMayFinish.countDown();
+        sleep(50);
+        assertEquals("product-1#3", getProduct.apply(1)); // the stale refresh was dropped
+    }
+
+    @Test
+    public void failedLoadIsNotCachedTest() {
+        var calls = new AtomicInteger();
+        var getRating = CachedFunction.cache((Integer id) -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("rating service unavailable");
+            }
+            return 5;
+        }, CachePolicy.of(10, Duration.ofMinutes(1)));
+
+        assertThrows(IllegalStateException.class, () -> getRating.apply(1));
+        assertEquals(5, getRating.apply(1));
+        assertEquals(5, getRating.apply(1));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void invalidPolicyIsRejectedTest() {
+        assertThrows(IllegalArgumentException.class, () -> CachePolicy.of(0, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> CachePolicy.of(10, Duration.ofSeconds(1)).withRefreshAhead(Duration.ofSeconds(1)));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
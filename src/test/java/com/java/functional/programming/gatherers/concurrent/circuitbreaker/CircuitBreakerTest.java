@@ -0,0 +1,105 @@
+package com.java.functional.programming.gatherers.concurrent.circuitbreaker;
+
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * closed -> open on the failure rate, open -> half-open after openDuration, half-open -> closed or open on the trial calls.
+ * */
+@Slf4j
+public class CircuitBreakerTest {
+
+    record ProductAggregate(String productName, int rating) {
+    }
+
+    private final CircuitBreakerPolicy policy = new CircuitBreakerPolicy(0.5, 10, 4, Duration.ofMillis(200), 2);
+
+    @Test
+    public void opensOnFailureRateAndFailsFastTest() {
+        var circuitBreaker = new CircuitBreaker("rating", policy);
+        var calls = new AtomicInteger();
+
+        IntStream.range(0, 3).forEach(i -> circuitBreaker.call(() -> calls.incrementAndGet()));
+        IntStream.range(0, 2).forEach(i -> assertThrows(IllegalStateException.class, () -> circuitBreaker.call(() -> fail(calls))));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState()); // 2 of 5 failed, below the threshold
+        assertThrows(IllegalStateException.class, () -> circuitBreaker.call(() -> fail(calls)));
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState()); // 3 of 6 failed
+
+        assertThrows(CircuitOpenException.class, () -> circuitBreaker.call(() -> calls.incrementAndGet()));
+        assertEquals(6, calls.get()); // the rejected call never reached the backend
+    }
+
+    @Test
+    public void halfOpenClosesAfterSuccessfulTrialsTest() throws InterruptedException {
+        var circuitBreaker = this.openCircuitBreaker();
+        Thread.sleep(250);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        circuitBreaker.call(() -> 1);
+        circuitBreaker.call(() -> 2);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void halfOpenReopensOnFailedTrialTest() throws InterruptedException {
+        var circuitBreaker = this.openCircuitBreaker();
+        Thread.sleep(250);
+
+        assertThrows(IllegalStateException.class, () -> circuitBreaker.call(() -> fail(new AtomicInteger())));
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(CircuitOpenException.class, () -> circuitBreaker.call(() -> 1));
+    }
+
+    @Test
+    public void aggregationContinuesWithFallbackWhileOpenTest() {
+        var ratingBreaker = new CircuitBreaker("rating", policy);
+        var ratingCalls = new AtomicInteger();
+
+        List<ProductAggregate> aggregates = IntStream.rangeClosed(1, 100)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.aggregateConcurrent(10, (productId, subTaskExecutor) -> {
+                    var product = subTaskExecutor.execute(() -> "product-" + productId);
+                    var rating = subTaskExecutor.execute(ratingBreaker.protect(() -> {
+                        ratingCalls.incrementAndGet();
+                        Thread.sleep(20); // degraded rating service
+                        throw new IllegalStateException("rating service unavailable");
+                    })).onError(e -> 0);
+                    return new ProductAggregate(product.get(), (int) rating.get());
+                }))
+                .toList();
+
+        log.info("rating service called {} times for 100 products, {}", ratingCalls.get(), ratingBreaker);
+        assertEquals(100, aggregates.size());
+        assertTrue(aggregates.stream().allMatch(aggregate -> aggregate.rating() == 0));
+        assertTrue(ratingCalls.get() <= 20, "rating service called " + ratingCalls.get() + " times");
+    }
+
+    @Test
+    public void invalidPolicyIsRejectedTest() {
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreakerPolicy(0, 10, 5, Duration.ofSeconds(1), 1));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreakerPolicy(0.5, 10, 11, Duration.ofSeconds(1), 1));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreakerPolicy(0.5, 10, 5, Duration.ZERO, 1));
+    }
+
+    private CircuitBreaker openCircuitBreaker() {
+        var circuitBreaker = new CircuitBreaker("rating", policy);
+        IntStream.range(0, 4).forEach(i -> assertThrows(IllegalStateException.class, () -> circuitBreaker.call(() -> fail(new AtomicInteger()))));
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        return circuitBreaker;
+    }
+
+    private static Integer fail(AtomicInteger calls) {
+        calls.incrementAndGet();
+        throw new IllegalStateException("backend failure");
+    }
+}
@@ -0,0 +1,116 @@
+package com.java.functional.programming.gatherers.concurrent.coalescing;
+
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Duplicate keys in flight at the same time share one backend call.
+ * */
+@Slf4j
+public class SingleFlightFunctionTest {
+
+    @Test
+    public void duplicateKeysShareOneCallTest() {
+        var backendCalls = new AtomicInteger();
+        var getProduct = SingleFlightFunction.coalesce((Integer id) -> {
+            backendCalls.incrementAndGet();
+            sleep(100);
+            return "product-" + id;
+        });
+
+        List<String> products = IntStream.range(0, 500)
+                .map(i -> i % 5) // skewed: only 5 distinct ids
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(500, getProduct))
+                .toList();
+
+        log.info("500 lookups, {} backend calls, {} coalesced", backendCalls.get(), getProduct.getCoalescedCount());
+        assertEquals(500, products.size());
+        assertEquals(100, products.stream().filter("product-3"::equals).count());
+        assertTrue(backendCalls.get() <= 10, backendCalls.get() + " backend calls");
+        assertEquals(500, backendCalls.get() + getProduct.getCoalescedCount());
+    }
+
+    @Test
+    public void completedKeyIsCalledAgainTest() {
+        var backendCalls = new AtomicInteger();
+        Function<Integer, Integer> getRating = SingleFlightFunction.coalesce(id -> backendCalls.incrementAndGet());
+
+        getRating.apply(1);
+        getRating.apply(1);
+
+        assertEquals(2, backendCalls.get()); // not a cache
+    }
+
+    @Test
+    public void failureIsSharedWithWaitingCallersTest() {
+        var backendCalls = new AtomicInteger();
+        var getRating = SingleFlightFunction.coalesce((Integer id) -> {
+            backendCalls.incrementAndGet();
+            sleep(100);
+            throw new IllegalStateException("rating service unavailable");
+        });
+
+        var exception = assertThrows(RuntimeException.class, () -> IntStream.range(0, 20)
+                .map(i -> 7)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(20, getRating))
+                .toList());
+        assertTrue(exception.getCause() instanceof IllegalStateException);
+        assertEquals(1, backendCalls.get());
+    }
+
+    @Test
+    public void executeConcurrentCoalescedTest() {
+        var backendCalls = new AtomicInteger();
+
+        List<Integer> ratings = IntStream.range(0, 100)
+                .map(i -> i % 2)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrentCoalesced(100, (Integer id) -> {
+                    backendCalls.incrementAndGet();
+                    sleep(100);
+                    return id * 10;
+                }))
+                .toList();
+
+        assertEquals(100, ratings.size());
+        assertTrue(backendCalls.get() <= 4, backendCalls.get() + " backend calls");
+    }
+
+    @Test
+    public void keyFunctionSelectsTheRequestKeyTest() {
+        var backendCalls = new AtomicInteger();
+        Function<String, String> lookup = SingleFlightFunction.coalesce(String::toLowerCase, name -> {
+            backendCalls.incrementAndGet();
+            sleep(100);
+            return name.toLowerCase();
+        });
+
+        List<String> results = List.of("A", "a", "A", "a").stream()
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(4, lookup))
+                .toList();
+
+        assertEquals(List.of("a", "a", "a", "a"), results);
+        assertEquals(1, backendCalls.get());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.java.functional.programming.gatherers.concurrent.deadline;
+
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithStructuredTaskScope;
+import com.java.functional.programming.gatherers.concurrent.hedging.HedgePolicy;
+import com.java.functional.programming.gatherers.concurrent.hedging.HedgedFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A deadline bound by the caller must reach every nested subtask, whatever executor runs it, and only ever shrink on the way down.
+ * */
+@Slf4j
+public class DeadlineTest {
+
+    @Test
+    public void nestedDeadlineCannotExtendOuterTest() {
+        assertFalse(Deadline.current().isPresent());
+
+        var remaining = Deadline.callWithin(Duration.ofMillis(500), () ->
+                Deadline.callWithin(Duration.ofSeconds(10), () -> Deadline.current().orElseThrow().remaining()));
+
+        assertTrue(remaining.compareTo(Duration.ofMillis(500)) <= 0, "remaining " + remaining);
+        assertEquals(Duration.ofSeconds(1), Deadline.remainingOr(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    public void executeConcurrentPropagatesDeadlineTest() {
+        List<Duration> remaining = Deadline.callWithin(Duration.ofSeconds(5), () -> IntStream.rangeClosed(1, 20)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(4, (Integer id) -> Deadline.current().orElseThrow().remaining()))
+                .toList());
+
+        assertEquals(20, remaining.size());
+        remaining.forEach(r -> assertTrue(r.compareTo(Duration.ofSeconds(5)) <= 0, "remaining " + r));
+    }
+
+    @Test
+    public void workAfterDeadlineIsSkippedTest() {
+        var started = new AtomicInteger();
+
+        var exception = assertThrows(RuntimeException.class, () -> Deadline.callWithin(Duration.ofMillis(100), () -> IntStream.rangeClosed(1, 20)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(1, (Integer id) -> {
+                    started.incrementAndGet();
+                    sleep(Duration.ofMillis(40));
+                    return id;
+                }))
+                .toList()));
+
+        log.info("failed with {} after {} tasks", exception, started.get());
+        assertTrue(started.get() < 20, "started " + started.get());
+    }
+
+    @Test
+    public void executorServiceSubTaskSeesDeadlineTest() {
+        List<Boolean> seen = Deadline.callWithin(Duration.ofSeconds(5), () -> IntStream.rangeClosed(1, 5)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.aggregateConcurrent(2, (id, executor) ->
+                        executor.execute(() -> Deadline.current().isPresent()).get()))
+                .toList());
+
+        assertEquals(List.of(true, true, true, true, true), seen);
+    }
+
+    @Test
+    public void structuredSubTaskSeesElementDeadlineTest() {
+        List<Duration> remaining = IntStream.rangeClosed(1, 5)
+                .boxed()
+                .gather(GatherersUtilWithStructuredTaskScope.aggregateConcurrentWithTimeout(2, (id, executor) ->
+                        executor.execute(() -> Deadline.current().orElseThrow().remaining()).get(), Duration.ofSeconds(2)))
+                .toList();
+
+        assertEquals(5, remaining.size());
+        remaining.forEach(r -> assertTrue(r.compareTo(Duration.ofSeconds(2)) <= 0, "remaining " + r));
+    }
+
+    @Test
+    public void hedgedAttemptsSeeDeadlineTest() {
+        var calls = new AtomicInteger();
+        var hedged = HedgedFunction.hedge((Integer id) -> {
+            if (calls.incrementAndGet() == 2) {
+                sleep(Duration.ofMillis(500)); // the first attempt within the deadline is slow, so it gets hedged
+            }
+            return Deadline.current().isPresent();
+        }, new HedgePolicy(0.5, 1, 10));
+        hedged.apply(0); // establishes the latency percentile
+
+        boolean seen = Deadline.callWithin(Duration.ofSeconds(5), () -> hedged.apply(1));
+
+        assertTrue(seen);
+        assertEquals(1, hedged.getHedgeCount()); // the answer came from the hedge attempt
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.java.functional.programming.gatherers.concurrent.degraded;
+
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
+import com.java.functional.programming.gatherers.concurrent.deadline.Deadline;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A failing or hung sub-result must degrade its element, never fail or stall the stream.
+ * */
+@Slf4j
+public class AggregateConcurrentDegradedTest {
+
+    record ProductAggregate(String productName, int rating, boolean ratingMissing) {
+    }
+
+    @Test
+    public void failedSubResultIsReplacedByFallbackTest() {
+        List<ProductAggregate> aggregates = IntStream.rangeClosed(1, 20)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.aggregateConcurrentDegraded(
+                        5,
+                        (Integer id) -> "product-" + id, FallbackPolicy.of(Duration.ofSeconds(5), "unknown"),
+                        (Integer id) -> {
+                            if (id % 2 == 0) {
+                                throw new IllegalStateException("rating service down");
+                            }
+                            return id % 5 + 1;
+                        }, FallbackPolicy.of(Duration.ofSeconds(5), 0),
+                        (product, rating) -> new ProductAggregate(product.value(), rating.value(), rating.isMissing())))
+                .toList();
+
+        assertEquals(20, aggregates.size());
+        aggregates.forEach(aggregate -> {
+            int id = Integer.parseInt(aggregate.productName().substring("product-".length()));
+            assertEquals(id % 2 == 0, aggregate.ratingMissing());
+            assertEquals(id % 2 == 0 ? 0 : id % 5 + 1, aggregate.rating());
+        });
+    }
+
+    @Test
+    public void hungSubResultTimesOutAndIsCancelledTest() throws InterruptedException {
+        var hungCallsInterrupted = new CountDownLatch(4);
+        long start = System.nanoTime();
+
+        List<SubResult<Integer>> ratings = IntStream.rangeClosed(1, 4)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.aggregateConcurrentDegraded(
+                        4,
+                        (Integer id) -> "product-" + id, FallbackPolicy.of(Duration.ofSeconds(5), "unknown"),
+                        (Integer id) -> {
+                            try {
+                                Thread.sleep(60_000);
+                            } catch (InterruptedException e) {
+                                hungCallsInterrupted.countDown();
+                            }
+                            return id;
+                        }, FallbackPolicy.of(Duration.ofMillis(100), -1),
+                        (product, rating) -> {
+                            assertFalse(product.isMissing());
+                            return rating;
+                        }))
+                .toList();
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+        ratings.forEach(rating -> {
+            assertTrue(rating.isMissing());
+            assertEquals(-1, rating.value());
+            assertInstanceOf(TimeoutException.class, rating.failure());
+        });
+        assertTrue(hungCallsInterrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void staggeredSubResultsShareTheDeadlineTest() {
+        // the second sub-result completes after the first one but well within the deadline, waiting for the first must not eat into its budget
+        List<SubResult<Integer>> ratings = Deadline.callWithin(Duration.ofMillis(1_500), () -> IntStream.rangeClosed(1, 1)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.aggregateConcurrentDegraded(
+                        1,
+                        (Integer id) -> sleepAndReturn(Duration.ofMillis(800), "product-" + id), FallbackPolicy.of(Duration.ofSeconds(5), "unknown"),
+                        (Integer id) -> sleepAndReturn(Duration.ofMillis(1_000), id), FallbackPolicy.of(Duration.ofSeconds(5), -1),
+                        (product, rating) -> {
+                            assertFalse(product.isMissing());
+                            return rating;
+                        }))
+                .toList());
+
+        assertEquals(1, ratings.size());
+        assertFalse(ratings.getFirst().isMissing(), "missing: " + ratings.getFirst().failure());
+        assertEquals(1, ratings.getFirst().value());
+    }
+
+    @Test
+    public void invalidArgumentsAreRejectedEagerlyTest() {
+        assertThrows(IllegalArgumentException.class, () -> FallbackPolicy.of(Duration.ZERO, 0));
+        assertThrows(NullPointerException.class, () -> SubResult.missing(0, null));
+    }
+
+    private static <T> T sleepAndReturn(Duration duration, T value) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        return value;
+    }
+}
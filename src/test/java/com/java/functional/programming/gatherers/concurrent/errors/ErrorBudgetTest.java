@@ -0,0 +1,95 @@
+package com.java.functional.programming.gatherers.concurrent.errors;
+
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
+import com.java.functional.programming.gatherers.concurrent.retry.RetryPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+public class ErrorBudgetTest {
+
+    @Test
+    public void errorSamplesAreCappedButAllErrorsAreCountedTest() {
+        var accounting = new ErrorAccounting(3, ErrorBudget.unlimited());
+        IntStream.range(0, 10_000).forEach(i -> accounting.recordError(i % 2 == 0 ? new IllegalStateException() : new IllegalArgumentException()));
+
+        var exception = accounting.toException("Delayed Execution Exception");
+
+        assertEquals(3, exception.getSuppressed().length);
+        assertEquals(10_000, exception.getErrorCount());
+        assertEquals(5_000L, exception.getCountsByType().get(IllegalStateException.class.getName()));
+        assertEquals(5_000L, exception.getCountsByType().get(IllegalArgumentException.class.getName()));
+    }
+
+    @Test
+    public void exceptionTypesAreCappedTest() {
+        var accounting = new ErrorAccounting(3, 2, ErrorBudget.unlimited());
+        accounting.recordError(new IllegalStateException());
+        accounting.recordError(new IllegalArgumentException());
+        accounting.recordError(new UnsupportedOperationException());
+        accounting.recordError(new ArithmeticException());
+        accounting.recordError(new IllegalStateException());
+
+        assertEquals(3, accounting.getCountsByType().size());
+        assertEquals(2L, accounting.getCountsByType().get(IllegalStateException.class.getName()));
+        assertEquals(2L, accounting.getCountsByType().get(ErrorAccounting.OTHER_EXCEPTION_TYPES));
+        assertEquals(5, accounting.getErrorCount());
+    }
+
+    @Test
+    public void budgetByCountAndRateTest() {
+        assertFalse(ErrorBudget.maxErrors(5).isExceeded(5, 5));
+        assertTrue(ErrorBudget.maxErrors(5).isExceeded(6, 100));
+
+        var rateBudget = ErrorBudget.maxErrorRate(0.1, 100);
+        assertFalse(rateBudget.isExceeded(50, 60)); // not enough samples yet
+        assertFalse(rateBudget.isExceeded(10, 100));
+        assertTrue(rateBudget.isExceeded(11, 100));
+    }
+
+    @Test
+    public void exceededBudgetAbortsTheStreamEarlyTest() {
+        var started = new AtomicInteger();
+
+        var exception = assertThrows(DelayedExecutionException.class, () -> IntStream.rangeClosed(1, 10_000)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrentDelayError(10, RetryPolicy.noRetry(), ErrorBudget.maxErrorRate(0.5, 20), (Integer id) -> {
+                    started.incrementAndGet();
+                    if (id % 4 != 0) throw new IllegalStateException("backend down");
+                    return id;
+                }))
+                .toList());
+
+        log.info("aborted after {} tasks: {}", started.get(), exception.getMessage());
+        assertTrue(started.get() < 100, "started " + started.get() + " tasks");
+        assertTrue(exception.getMessage().startsWith("Error budget exceeded"));
+    }
+
+    @Test
+    public void delayedErrorsAreSummarisedAtTheEndTest() {
+        var exception = assertThrows(DelayedExecutionException.class, () -> IntStream.rangeClosed(1, 1000)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrentDelayError(10, (Integer id) -> {
+                    if (id % 10 == 0) throw new IllegalStateException("product " + id + " not found");
+                    return id;
+                }))
+                .toList());
+
+        assertEquals(100, exception.getErrorCount());
+        assertEquals(ErrorAccounting.DEFAULT_SAMPLE_SIZE, exception.getSuppressed().length);
+    }
+
+    @Test
+    public void invalidBudgetIsRejectedTest() {
+        assertThrows(IllegalArgumentException.class, () -> ErrorBudget.maxErrors(-1));
+        assertThrows(IllegalArgumentException.class, () -> ErrorBudget.maxErrorRate(0, 10));
+    }
+}
@@ -0,0 +1,161 @@
+package com.java.functional.programming.gatherers.concurrent.flow;
+
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The subscriber's demand must bound the tasks in flight, and the stream adapter must never request more than its prefetch.
+ * */
+@Slf4j
+public class ConcurrentPublisherTest {
+
+    @Test
+    public void demandBoundsStartedTasksTest() throws InterruptedException {
+        var started = new AtomicInteger();
+        var received = new CopyOnWriteArrayList<Integer>();
+        var threeReceived = new CountDownLatch(3);
+        var completed = new CountDownLatch(1);
+        var subscription = new Flow.Subscription[1];
+        var publisher = ConcurrentPublisher.of(IntStream.rangeClosed(1, 20).boxed().toList(), 10, (Integer id) -> {
+            started.incrementAndGet();
+            return id;
+        });
+
+        publisher.subscribe(new Flow.Subscriber<>() {
+            public void onSubscribe(Flow.Subscription s) {
+                subscription[0] = s;
+                s.request(3);
+            }
+
+            public void onNext(Integer item) {
+                received.add(item);
+                threeReceived.countDown();
+            }
+
+            public void onError(Throwable throwable) {
+                log.error("failed", throwable);
+            }
+
+            public void onComplete() {
+                completed.countDown();
+            }
+        });
+
+        assertTrue(threeReceived.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(3, started.get()); // no demand, no more calls, although 10 would be allowed
+        assertEquals(3, received.size());
+
+        subscription[0].request(Long.MAX_VALUE);
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(20, started.get());
+        assertEquals(IntStream.rangeClosed(1, 20).boxed().toList(), received.stream().sorted().toList());
+    }
+
+    @Test
+    public void roundTripThroughStreamIsBoundedByPrefetchTest() {
+        var inFlight = new AtomicInteger();
+        var maxInFlight = new AtomicInteger();
+        var publisher = ConcurrentPublisher.of(IntStream.rangeClosed(1, 100).boxed().toList(), 50, (Integer id) -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return id * 2;
+        });
+
+        List<Integer> results;
+        try (var stream = PublisherStream.toStream(publisher, 8)) {
+            results = stream
+                    .gather(GatherersUtilWithExecutorService.executeConcurrent(4, Function.<Integer>identity()))
+                    .toList();
+        }
+
+        log.info("max in flight: {}", maxInFlight.get());
+        assertEquals(IntStream.rangeClosed(1, 100).map(id -> id * 2).boxed().toList(), results.stream().sorted().toList());
+        assertTrue(maxInFlight.get() <= 8, "max in flight " + maxInFlight.get());
+    }
+
+    @Test
+    public void failureIsRethrownByStreamTest() {
+        var publisher = ConcurrentPublisher.of(IntStream.rangeClosed(1, 20).boxed().toList(), 4, (Integer id) -> {
+            if (id == 5) {
+                throw new IllegalStateException("product service down");
+            }
+            return id;
+        });
+
+        try (var stream = PublisherStream.toStream(publisher, 4)) {
+            assertThrows(IllegalStateException.class, stream::toList);
+        }
+    }
+
+    @Test
+    public void publisherIgnoringDemandIsCancelledTest() {
+        var cancelled = new AtomicBoolean();
+        Flow.Publisher<Integer> overrunning = subscriber -> {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                public void request(long n) {
+                }
+
+                public void cancel() {
+                    cancelled.set(true);
+                }
+            });
+            IntStream.rangeClosed(1, 5).forEach(subscriber::onNext); // one more than the prefetch, without waiting for demand
+            subscriber.onComplete();
+        };
+        var received = new ArrayList<Integer>();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            try (var stream = PublisherStream.toStream(overrunning, 4)) {
+                assertThrows(IllegalStateException.class, () -> stream.forEach(received::add));
+            }
+        });
+        assertEquals(List.of(1, 2, 3, 4), received);
+        assertTrue(cancelled.get());
+    }
+
+    @Test
+    public void closingShortCircuitedStreamCancelsTasksTest() throws InterruptedException {
+        var interrupted = new CountDownLatch(1);
+        var publisher = ConcurrentPublisher.of(IntStream.rangeClosed(1, 100).boxed().toList(), 4, (Integer id) -> {
+            if (id > 2) {
+                try {
+                    Thread.sleep(60_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+            return id;
+        });
+
+        try (var stream = PublisherStream.toStream(publisher, 4)) {
+            assertEquals(2, stream.limit(2).count());
+        }
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class, () -> PublisherStream.toStream(publisher, 0));
+    }
+}
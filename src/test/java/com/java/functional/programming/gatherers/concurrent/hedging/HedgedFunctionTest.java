@@ -0,0 +1,110 @@
+package com.java.functional.programming.gatherers.concurrent.hedging;
+
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+public class HedgedFunctionTest {
+
+    /**
+     * Every 10th call of the simulated backend takes 1s instead of 5ms. A hedge sent after the p80 latency is very likely to land on a fast call.
+     * */
+    @Test
+    public void hedgingCutsTailLatencyTest() {
+        var calls = new AtomicInteger();
+        Function<Integer, Integer> backend = id -> {
+            sleep(calls.incrementAndGet() % 10 == 0 ? 1000 : 5);
+            return id;
+        };
+        var hedged = HedgedFunction.hedge(backend, new HedgePolicy(0.8, 20, 100));
+
+        IntStream.range(0, 30).forEach(hedged::apply); // warm up the latency window
+
+        long start = System.nanoTime();
+        IntStream.range(0, 30).forEach(hedged::apply);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        log.info("30 hedged calls took {} ms, {} hedges", elapsedMillis, hedged.getHedgeCount());
+        assertTrue(hedged.getHedgeCount() > 0);
+        assertTrue(elapsedMillis < 1000, "took " + elapsedMillis + " ms"); // without hedging: 3 slow calls, at least 3s
+    }
+
+    @Test
+    public void noHedgingBeforeMinSamplesTest() {
+        var hedged = HedgedFunction.hedge((Integer id) -> {
+            sleep(5);
+            return id;
+        }, new HedgePolicy(0.5, 50, 100));
+
+        IntStream.range(0, 49).forEach(hedged::apply);
+
+        assertEquals(0, hedged.getHedgeCount());
+    }
+
+    @Test
+    public void failureOfOneAttemptDoesNotFailTheCallTest() {
+        var firstAttemptOfLastCall = new AtomicBoolean(true);
+        var hedged = HedgedFunction.hedge((Integer id) -> {
+            if (id == 20 && firstAttemptOfLastCall.getAndSet(false)) {
+                sleep(200);
+                throw new IllegalStateException("backend error");
+            }
+            sleep(10);
+            return id;
+        }, new HedgePolicy(0.5, 20, 100));
+
+        IntStream.range(0, 20).forEach(hedged::apply);
+
+        assertEquals(20, hedged.apply(20)); // the hedge succeeds before the slow first attempt fails
+        assertEquals(1, hedged.getHedgeCount());
+    }
+
+    @Test
+    public void failureWithoutHedgeFailsTheCallTest() {
+        var hedged = HedgedFunction.hedge((Integer id) -> {
+            throw new IllegalStateException("backend error");
+        }, HedgePolicy.atPercentile(0.95));
+
+        var exception = assertThrows(IllegalStateException.class, () -> hedged.apply(1));
+        assertEquals("backend error", exception.getMessage());
+    }
+
+    @Test
+    public void executeConcurrentHedgedTest() {
+        long count = IntStream.rangeClosed(1, 100)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrentHedged(10, Duration.ofSeconds(5), HedgePolicy.atPercentile(0.95), (Integer id) -> {
+                    sleep(id % 20 == 0 ? 300 : 5);
+                    return id;
+                }))
+                .count();
+
+        assertEquals(100, count);
+    }
+
+    @Test
+    public void invalidPolicyIsRejectedTest() {
+        assertThrows(IllegalArgumentException.class, () -> HedgePolicy.atPercentile(1.0));
+        assertThrows(IllegalArgumentException.class, () -> new HedgePolicy(0.9, 200, 100));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.java.functional.programming.gatherers.concurrent.limit;
+
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+public class ConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    public void aimdGrowsAdditivelyAndShrinksMultiplicativelyTest() {
+        var clock = new AtomicLong();
+        var limit = new AimdConcurrencyLimit(10, 1, 20, 0.5, Duration.ofMillis(100), clock::get);
+
+        limit.onSample(FAST, 10, false);
+        limit.onSample(FAST, 10, false);
+        assertEquals(12, limit.getLimit());
+
+        limit.onSample(FAST, 10, true);
+        assertEquals(6, limit.getLimit());
+
+        clock.addAndGet(SLOW + 1); // started after the last decrease
+        limit.onSample(SLOW, 6, false); // too slow counts as overload
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    public void aimdStaysWithinBoundsTest() {
+        var clock = new AtomicLong();
+        var limit = new AimdConcurrencyLimit(2, 2, 4, 0.5, Duration.ofMillis(100), clock::get);
+        IntStream.range(0, 10).forEach(i -> limit.onSample(FAST, 4, false));
+        assertEquals(4, limit.getLimit());
+        IntStream.range(0, 10).forEach(i -> {
+            clock.addAndGet(FAST + 1);
+            limit.onSample(FAST, 4, true);
+        });
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    public void aimdBacksOffOncePerOverloadEventTest() {
+        var clock = new AtomicLong();
+        var limit = new AimdConcurrencyLimit(16, 1, 20, 0.5, Duration.ofMillis(100), clock::get);
+
+        clock.addAndGet(FAST);
+        IntStream.range(0, 10).forEach(i -> limit.onSample(FAST, 16, true)); // one burst, all started before the first decrease
+        assertEquals(8, limit.getLimit());
+
+        clock.addAndGet(FAST + 1);
+        limit.onSample(FAST, 8, true); // started after it: a new overload event
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    public void aimdDoesNotGrowWhenLimitIsNotUsedTest() {
+        var limit = new AimdConcurrencyLimit(10, 1, 20, 0.5, Duration.ofMillis(100));
+        IntStream.range(0, 10).forEach(i -> limit.onSample(FAST, 1, false));
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    public void vegasShrinksWhenLatencyShowsQueueingTest() {
+        var limit = new VegasConcurrencyLimit(50, 1, 100);
+        limit.onSample(FAST, 50, false); // establishes the no load latency
+        int beforeQueueing = limit.getLimit();
+        assertTrue(beforeQueueing > 50);
+
+        IntStream.range(0, 20).forEach(i -> limit.onSample(FAST * 5, limit.getLimit(), false));
+        assertTrue(limit.getLimit() < beforeQueueing, "limit was " + limit.getLimit());
+    }
+
+    @Test
+    public void vegasGrowsWhileLatencyIsStableTest() {
+        var limit = new VegasConcurrencyLimit(10, 1, 100);
+        IntStream.range(0, 20).forEach(i -> limit.onSample(FAST, limit.getLimit(), false));
+        assertTrue(limit.getLimit() > 10, "limit was " + limit.getLimit());
+    }
+
+    @Test
+    public void vegasBacksOffOncePerFailureBurstTest() {
+        var clock = new AtomicLong();
+        var limit = new VegasConcurrencyLimit(50, 1, 100, clock::get);
+
+        clock.addAndGet(FAST);
+        IntStream.range(0, 50).forEach(i -> limit.onSample(FAST, 50, true)); // one burst, all started before the first decrease
+        assertEquals(45, limit.getLimit());
+
+        clock.addAndGet(FAST + 1);
+        limit.onSample(FAST, 45, true); // started after it: a new overload event
+        assertEquals(40, limit.getLimit());
+    }
+
+    @Test
+    public void invalidLimitsAreRejectedTest() {
+        assertThrows(IllegalArgumentException.class, () -> ConcurrencyLimit.fixed(0));
+        assertThrows(IllegalArgumentException.class, () -> new AimdConcurrencyLimit(30, 1, 20, 0.5, Duration.ofMillis(100)));
+        assertThrows(IllegalArgumentException.class, () -> new AimdConcurrencyLimit(10, 1, 20, 1.5, Duration.ofMillis(100)));
+        assertThrows(IllegalArgumentException.class, () -> new VegasConcurrencyLimit(10, 0, 20));
+    }
+
+    /**
+     * The backend below slows down with every concurrent call (5ms per call in flight).
+     * With a 50ms latency threshold the adaptive limit must settle around 10, far below maxLimit.
+     * */
+    @Test
+    public void executeConcurrentFollowsAdaptiveLimitTest() {
+        var backendInFlight = new AtomicInteger();
+        var maxBackendInFlight = new AtomicInteger();
+        var limit = AimdConcurrencyLimit.of(100, Duration.ofMillis(50));
+
+        long count = IntStream.rangeClosed(1, 300)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(limit, (Integer id) -> {
+                    int inFlight = backendInFlight.incrementAndGet();
+                    maxBackendInFlight.accumulateAndGet(inFlight, Math::max);
+                    try {
+                        Thread.sleep(5L * inFlight);
+                        return id;
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    } finally {
+                        backendInFlight.decrementAndGet();
+                    }
+                }))
+                .count();
+
+        log.info("max backend in flight: {}, final limit: {}", maxBackendInFlight.get(), limit);
+        assertEquals(300, count);
+        assertTrue(maxBackendInFlight.get() <= 30, "max backend in flight was " + maxBackendInFlight.get());
+    }
+}
@@ -0,0 +1,75 @@
+package com.java.functional.programming.gatherers.concurrent.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Percentiles are exact below 128 ns and within 1/64 relative error above.
+ * */
+@Slf4j
+public class LatencyHistogramTest {
+
+    @Test
+    public void percentilesAreWithinRelativeErrorTest() {
+        var histogram = new LatencyHistogram();
+        LongStream.rangeClosed(1, 100_000).forEach(i -> histogram.record(i * 1_000)); // 1 µs .. 100 ms
+
+        log.info("{}", histogram);
+        assertEquals(100_000, histogram.getCount());
+        assertWithinRelativeError(50_000_000, histogram.getValueAtPercentile(50));
+        assertWithinRelativeError(99_000_000, histogram.getValueAtPercentile(99));
+        assertWithinRelativeError(99_900_000, histogram.getValueAtPercentile(99.9));
+        assertEquals(100_000_000, histogram.getValueAtPercentile(100));
+        assertEquals(100_000_000, histogram.getMaxNanos());
+        assertWithinRelativeError(50_000_500, (long) histogram.getMeanNanos());
+    }
+
+    @Test
+    public void smallValuesAreExactTest() {
+        var histogram = new LatencyHistogram();
+        IntStream.range(0, 100).forEach(histogram::record);
+
+        assertEquals(49, histogram.getValueAtPercentile(50));
+        assertEquals(0, histogram.getValueAtPercentile(0));
+        assertEquals(99, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void bucketsCoverTheWholeRangeTest() {
+        for (long value : new long[]{127, 128, 255, 256, 1_000_000_007L, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.bucketIndex(value);
+            long highest = LatencyHistogram.highestEquivalentValue(index);
+            assertTrue(highest >= value && highest - value <= value / 64, value + " -> " + highest);
+        }
+    }
+
+    @Test
+    public void concurrentRecordingLosesNothingTest() {
+        var histogram = new LatencyHistogram();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            IntStream.range(0, 100).forEach(t -> executor.submit(() -> IntStream.range(0, 1000).forEach(histogram::record)));
+        }
+        assertEquals(100_000, histogram.getCount());
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void invalidPercentileIsRejectedTest() {
+        assertThrows(IllegalArgumentException.class, () -> new LatencyHistogram().getValueAtPercentile(101));
+    }
+
+    private static void assertWithinRelativeError(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 64, "expected ~" + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,111 @@
+package com.java.functional.programming.gatherers.concurrent.metrics;
+
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ExecuteConcurrent reports in flight tasks, saturation, task latency and queue wait; PipelineMetrics publishes them through JMX.
+ * */
+@Slf4j
+public class PipelineMetricsTest {
+
+    @Test
+    public void inFlightTasksAreVisibleWhileRunningTest() {
+        var metrics = new PipelineMetrics("in-flight");
+        var maxObservedInFlight = new AtomicInteger();
+
+        List<Integer> results = IntStream.range(0, 100)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(10, metrics, id -> {
+                    maxObservedInFlight.accumulateAndGet((int) metrics.getInFlight(), Math::max);
+                    sleep(10);
+                    return id;
+                }))
+                .toList();
+
+        log.info("{}", metrics);
+        assertEquals(100, results.size());
+        assertEquals(10, maxObservedInFlight.get());
+        assertEquals(0, metrics.getInFlight());
+        assertEquals(100, metrics.getAcceptedCount());
+        assertEquals(100, metrics.getCompletedCount());
+        assertTrue(metrics.getSaturationRatio() > 0.3, "saturation " + metrics.getSaturationRatio()); // 100 tasks through 10 slots
+        assertTrue(metrics.getTaskLatencyP50Millis() >= 10);
+    }
+
+    @Test
+    public void resultsWaitingForTheNextElementShowUpAsQueueWaitTest() {
+        var metrics = new PipelineMetrics("slow-upstream");
+
+        IntStream.range(0, 20)
+                .boxed()
+                .peek(id -> sleep(20)) // a result is ready after 2 ms, but only pushed by the next integrate call, 20 ms later
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(20, metrics, id -> {
+                    sleep(2);
+                    return id;
+                }))
+                .toList();
+
+        log.info("{}", metrics);
+        assertTrue(metrics.getQueueWaitP50Millis() >= 10, "queue wait " + metrics.getQueueWaitP50Millis());
+        assertEquals(0, metrics.getSaturatedCount());
+    }
+
+    @Test
+    public void inFlightGaugeIsReleasedWhenStreamFailsOrShortCircuitsTest() {
+        var metrics = new PipelineMetrics("failing");
+
+        assertThrows(RuntimeException.class, () -> IntStream.range(0, 50)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(10, metrics, id -> {
+                    if (id == 5) {
+                        throw new IllegalStateException("backend failure");
+                    }
+                    sleep(50);
+                    return id;
+                }))
+                .toList());
+        assertEquals(0, metrics.getInFlight());
+
+        IntStream.range(0, 50)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(10, metrics, id -> id))
+                .filter(id -> id > 100) // nothing passes, drives the whole stream
+                .findFirst();
+        assertEquals(0, metrics.getInFlight());
+    }
+
+    @Test
+    public void metricsArePublishedThroughJmxTest() throws Exception {
+        var server = ManagementFactory.getPlatformMBeanServer();
+        var name = new ObjectName("com.java.functional.programming.gatherers:type=ConcurrentGatherer,pipeline=" + ObjectName.quote("jmx"));
+        try (var metrics = new PipelineMetrics("jmx").registerMBean()) {
+            IntStream.range(0, 10).boxed().gather(GatherersUtilWithExecutorService.executeConcurrent(5, metrics, id -> id)).toList();
+
+            assertEquals(10L, server.getAttribute(name, "AcceptedCount"));
+            assertEquals("jmx", server.getAttribute(name, "Pipeline"));
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
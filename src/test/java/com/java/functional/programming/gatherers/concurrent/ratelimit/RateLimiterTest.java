@@ -0,0 +1,97 @@
+package com.java.functional.programming.gatherers.concurrent.ratelimit;
+
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The token bucket lets a burst through right away and then spaces the calls at the configured rate.
+ * */
+@Slf4j
+public class RateLimiterTest {
+
+    @Test
+    public void burstIsServedImmediatelyTest() {
+        var rateLimiter = new RateLimiter(1, 20);
+        long start = System.nanoTime();
+        IntStream.range(0, 20).forEach(i -> rateLimiter.acquire());
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 100);
+    }
+
+    @Test
+    public void callsAreSpacedAtRateAfterBurstTest() {
+        var rateLimiter = new RateLimiter(100, 10);
+        var startTimes = new ConcurrentLinkedQueue<Long>();
+        long start = System.nanoTime();
+
+        List<Integer> results = IntStream.range(0, 60)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrent(60, rateLimiter, id -> {
+                    startTimes.add(System.nanoTime());
+                    return id;
+                }))
+                .toList();
+
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        log.info("60 calls with a burst of 10 at 100/s took {} ms", elapsedMillis);
+        assertEquals(60, results.size());
+        assertTrue(elapsedMillis >= 450, "50 calls beyond the burst need ~500 ms, took " + elapsedMillis);
+        assertTrue(elapsedMillis < 2000, "took " + elapsedMillis);
+
+        // never more than burst + rate * window calls in any 200 ms window
+        var sorted = startTimes.stream().sorted().toList();
+        long window = Duration.ofMillis(200).toNanos();
+        for (int i = 0; i < sorted.size(); i++) {
+            int j = i;
+            while (j < sorted.size() && sorted.get(j) - sorted.get(i) < window) {
+                j++;
+            }
+            assertTrue(j - i <= 10 + 20 + 1, (j - i) + " calls within 200 ms");
+        }
+    }
+
+    @Test
+    public void interruptedWaiterGivesItsTokenBackTest() throws InterruptedException {
+        var rateLimiter = new RateLimiter(2, 1);
+        long start = System.nanoTime();
+        rateLimiter.acquire(); // empties the bucket
+        var interrupted = new AtomicBoolean();
+        var waiter = Thread.ofVirtual().start(() -> {
+            try {
+                rateLimiter.acquire(); // reserves the next token, due in 500 ms
+            } catch (RuntimeException e) {
+                interrupted.set(Thread.currentThread().isInterrupted());
+            }
+        });
+        Thread.sleep(50);
+        waiter.interrupt(); // e.g. the pipeline was cancelled
+        waiter.join();
+        assertTrue(interrupted.get());
+
+        Thread.sleep(Duration.ofMillis(600).minusNanos(System.nanoTime() - start)); // the bucket has refilled by one token since
+        long beforeAcquire = System.nanoTime();
+        rateLimiter.acquire();
+
+        long waitedMillis = Duration.ofNanos(System.nanoTime() - beforeAcquire).toMillis();
+        assertTrue(waitedMillis < 200, "waited " + waitedMillis + " ms for the token of the interrupted waiter");
+    }
+
+    @Test
+    public void invalidArgumentsAreRejectedTest() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(Double.NaN, 1));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(10, 0));
+        assertThrows(NullPointerException.class, () -> GatherersUtilWithExecutorService.executeConcurrent(10, (RateLimiter) null, id -> id));
+    }
+}
@@ -0,0 +1,111 @@
+package com.java.functional.programming.gatherers.concurrent.retry;
+
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+public class RetryPolicyTest {
+
+    @Test
+    public void backoffIsJitteredAndCappedTest() {
+        var policy = RetryPolicy.of(10, Duration.ofMillis(10), Duration.ofMillis(50));
+        for (int attempt = 1; attempt < 10; attempt++) {
+            long backoff = policy.backoffNanos(attempt);
+            assertTrue(backoff >= 0 && backoff <= TimeUnit.MILLISECONDS.toNanos(50), "backoff " + backoff);
+        }
+        assertTrue(policy.backoffNanos(1) <= TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    @Test
+    public void classifierDecidesWhatIsRetriedTest() {
+        var policy = RetryPolicy.of(3, Duration.ofMillis(10), Duration.ofMillis(50)).retryOn(UncheckedIOException.class);
+
+        assertTrue(policy.shouldRetry(1, new UncheckedIOException(new java.io.IOException("connection reset"))));
+        assertFalse(policy.shouldRetry(1, new IllegalArgumentException("product not found")));
+        assertFalse(policy.shouldRetry(3, new UncheckedIOException(new java.io.IOException("connection reset"))));
+    }
+
+    @Test
+    public void transientFailuresAreRetriedTest() {
+        Map<Integer, AtomicInteger> attempts = new ConcurrentHashMap<>();
+
+        long count = IntStream.rangeClosed(1, 50)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrentDelayError(5, RetryPolicy.of(3, Duration.ofMillis(5), Duration.ofMillis(20)), (Integer id) -> {
+                    int attempt = attempts.computeIfAbsent(id, k -> new AtomicInteger()).incrementAndGet();
+                    if (id % 5 == 0 && attempt < 3) {
+                        throw new IllegalStateException("flaky backend for " + id);
+                    }
+                    return id;
+                }))
+                .count();
+
+        assertEquals(50, count);
+        assertEquals(3, attempts.get(10).get());
+        assertEquals(1, attempts.get(11).get());
+    }
+
+    @Test
+    public void nonRetryableAndExhaustedFailuresAreDelayedTest() {
+        var emitted = new AtomicInteger();
+        var policy = RetryPolicy.of(2, Duration.ofMillis(5), Duration.ofMillis(10)).retryOn(IllegalStateException.class);
+
+        var exception = assertThrows(RuntimeException.class, () -> IntStream.rangeClosed(1, 20)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrentDelayError(5, policy, (Integer id) -> {
+                    if (id == 3) throw new IllegalStateException("always failing " + id);
+                    if (id == 7) throw new IllegalArgumentException("not retryable " + id);
+                    return id;
+                }))
+                .forEach(id -> emitted.incrementAndGet()));
+
+        assertEquals(18, emitted.get());
+        assertEquals(2, exception.getSuppressed().length);
+    }
+
+    /**
+     * While element 1 waits for its long backoff, the 2 slots keep serving the other elements.
+     * */
+    @Test
+    public void waitingRetryDoesNotHoldSlotTest() {
+        var failedOnce = new AtomicInteger();
+        long start = System.nanoTime();
+
+        long count = IntStream.rangeClosed(1, 20)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeConcurrentDelayError(2, new RetryPolicy(2, Duration.ofMillis(300), Duration.ofMillis(300), 1, t -> true), (Integer id) -> {
+                    if (id == 1 && failedOnce.getAndIncrement() == 0) throw new IllegalStateException("flaky");
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return id;
+                }))
+                .count();
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertEquals(20, count);
+        assertTrue(elapsedMillis < 800, "took " + elapsedMillis + " ms"); // 10 rounds of 20ms, plus at most one backoff
+    }
+
+    @Test
+    public void invalidPolicyIsRejectedTest() {
+        assertThrows(IllegalArgumentException.class, () -> RetryPolicy.of(0, Duration.ofMillis(5), Duration.ofMillis(10)));
+        assertThrows(IllegalArgumentException.class, () -> RetryPolicy.of(3, Duration.ofMillis(50), Duration.ofMillis(10)));
+    }
+}
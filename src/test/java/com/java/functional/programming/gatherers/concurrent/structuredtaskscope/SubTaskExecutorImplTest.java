@@ -0,0 +1,109 @@
+package com.java.functional.programming.gatherers.concurrent.structuredtaskscope;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every joiner decides what SubTaskResult.get() returns, and which slow subtasks are cancelled instead of awaited.
+ * */
+@Slf4j
+public class SubTaskExecutorImplTest {
+
+    @Test
+    public void raceReturnsFirstSuccessfulReplicaTest() throws InterruptedException {
+        var slowReplicaInterrupted = new CountDownLatch(1);
+        long start = System.nanoTime();
+        try (var executor = SubTaskExecutorImpl.openAnySuccessful()) {
+            var slow = executor.execute(() -> {
+                try {
+                    Thread.sleep(60_000);
+                } catch (InterruptedException e) {
+                    slowReplicaInterrupted.countDown();
+                }
+                return "slow";
+            });
+            var failing = executor.execute(() -> { throw new IllegalStateException("replica down"); });
+            var fast = executor.execute(() -> sleepAndReturn(Duration.ofMillis(20), "fast"));
+
+            assertEquals("fast", fast.get());
+            assertEquals("fast", slow.get());
+            assertEquals("fast", failing.get());
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+        assertTrue(slowReplicaInterrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void raceFailsWhenEveryReplicaFailsTest() {
+        try (var executor = SubTaskExecutorImpl.openAnySuccessful()) {
+            SubTaskResult<String> first = executor.execute(() -> { throw new IllegalStateException("replica 1 down"); });
+            executor.execute(() -> { throw new IllegalStateException("replica 2 down"); });
+
+            assertThrows(IllegalStateException.class, first::get);
+            assertEquals("fallback", first.onError(e -> "fallback").get());
+        }
+    }
+
+    @Test
+    public void quorumCompletesWithoutSlowestReplicaTest() {
+        try (var executor = SubTaskExecutorImpl.openQuorum(2, 3)) {
+            var a = executor.execute(() -> sleepAndReturn(Duration.ofMillis(10), 1));
+            var b = executor.execute(() -> sleepAndReturn(Duration.ofMillis(20), 2));
+            var c = executor.execute(() -> sleepAndReturn(Duration.ofSeconds(60), 3));
+
+            assertEquals(1, a.get());
+            assertEquals(2, b.get());
+            assertEquals(-1, c.onError(e -> {
+                assertInstanceOf(CancellationException.class, e);
+                return -1;
+            }).get());
+        }
+    }
+
+    @Test
+    public void quorumNotReachedFailsEarlyTest() {
+        long start = System.nanoTime();
+        try (var executor = SubTaskExecutorImpl.openQuorum(2, 3)) {
+            var a = executor.execute(() -> { throw new IllegalStateException("replica 1 down"); });
+            executor.execute(() -> { throw new IllegalStateException("replica 2 down"); });
+            executor.execute(() -> sleepAndReturn(Duration.ofSeconds(60), 3));
+
+            var exception = assertThrows(QuorumNotReachedException.class, a::get);
+            assertInstanceOf(IllegalStateException.class, exception.getCause());
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+        assertThrows(IllegalArgumentException.class, () -> SubTaskExecutorImpl.openQuorum(3, 2));
+    }
+
+    @Test
+    public void awaitAllKeepsPartialResultsTest() {
+        try (var executor = SubTaskExecutorImpl.openAwaitAll(Duration.ofMillis(200))) {
+            var ok = executor.execute(() -> "product-1");
+            var failed = executor.execute(() -> { throw new IllegalStateException("rating down"); });
+            var hung = executor.execute(() -> sleepAndReturn(Duration.ofSeconds(60), "reviews"));
+
+            assertEquals("product-1", ok.get());
+            assertEquals("no rating", failed.onError(e -> "no rating").get());
+            assertEquals("no reviews", hung.onError(e -> {
+                assertInstanceOf(TimeoutException.class, e);
+                return "no reviews";
+            }).get());
+        }
+    }
+
+    private static <T> T sleepAndReturn(Duration duration, T value) throws InterruptedException {
+        Thread.sleep(duration);
+        return value;
+    }
+}
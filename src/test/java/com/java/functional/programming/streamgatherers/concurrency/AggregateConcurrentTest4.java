@@ -1,11 +1,13 @@
 package com.java.functional.programming.streamgatherers.concurrency;
 
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithStructuredTaskScope;
+import com.java.functional.programming.gatherers.concurrent.degraded.FallbackPolicy;
 import com.java.functional.programming.streamgatherers.concurrency.externalservice.RestClient;
-import com.java.functional.programming.streamgatherers.concurrency.util.GatherersUtilWithExecutorService;
-import com.java.functional.programming.streamgatherers.concurrency.util.GatherersUtilWithStructuredTaskScope;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.stream.IntStream;
 
 /**
@@ -32,6 +34,9 @@ public class AggregateConcurrentTest4 {
     record ProductAggregate(String productName, int rating) {
     }
 
+    record DegradedProductAggregate(String productName, Integer rating, boolean ratingMissing) {
+    }
+
     /**
      * Ensure that the external service is up and running.
      * */
@@ -63,4 +68,22 @@ public class AggregateConcurrentTest4 {
                 ))
                 .forEach(aggregatedProduct -> log.info("aggregatedProduct: {}", aggregatedProduct));
     }
-}
\ No newline at end of file
+
+    /**
+     * Ensure that the external service is up and running.
+     * During a partial outage of the rating service the products are still emitted, flagged as without rating,
+     * instead of failing the whole stream.
+     * */
+    @Test
+    public void nestedConcurrencyDegradedTest() {
+        IntStream.rangeClosed(1, 100)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.aggregateConcurrentDegraded(
+                        10,
+                        RestClient::getProduct, FallbackPolicy.of(Duration.ofSeconds(5), null),
+                        RestClient::getRating, FallbackPolicy.of(Duration.ofMillis(1500), null),
+                        (product, rating) -> new DegradedProductAggregate(product.value(), rating.value(), rating.isMissing())
+                ))
+                .forEach(aggregatedProduct -> log.info("aggregatedProduct: {}", aggregatedProduct));
+    }
+}
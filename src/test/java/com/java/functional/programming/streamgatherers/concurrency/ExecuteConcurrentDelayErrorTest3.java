@@ -1,7 +1,7 @@
 package com.java.functional.programming.streamgatherers.concurrency;
 
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
 import com.java.functional.programming.streamgatherers.concurrency.externalservice.RestClient;
-import com.java.functional.programming.streamgatherers.concurrency.util.GatherersUtilWithExecutorService;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
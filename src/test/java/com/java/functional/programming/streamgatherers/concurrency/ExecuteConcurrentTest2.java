@@ -1,7 +1,7 @@
 package com.java.functional.programming.streamgatherers.concurrency;
 
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
 import com.java.functional.programming.streamgatherers.concurrency.externalservice.RestClient;
-import com.java.functional.programming.streamgatherers.concurrency.util.GatherersUtilWithExecutorService;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
@@ -26,4 +26,17 @@ public class ExecuteConcurrentTest2 {
                         10, RestClient::getProduct))
                 .forEach(log::info);
     }
+
+    /**
+     * Ensure that the external service is up and running.
+     * Same, with the async HTTP client: no thread is parked per in flight request.
+     * */
+    @Test
+    public void executeAsyncTest() {
+        IntStream.rangeClosed(1, 50)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.executeAsync(
+                        10, RestClient::getProductAsync))
+                .forEach(log::info);
+    }
 }
@@ -0,0 +1,104 @@
+package com.java.functional.programming.streamgatherers.concurrency;
+
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
+import com.java.functional.programming.streamgatherers.concurrency.externalservice.EndpointBehaviour;
+import com.java.functional.programming.streamgatherers.concurrency.externalservice.ExternalServiceStandIn;
+import com.java.functional.programming.streamgatherers.concurrency.externalservice.HttpTransport;
+import com.java.functional.programming.streamgatherers.concurrency.externalservice.LatencyDistribution;
+import com.java.functional.programming.streamgatherers.concurrency.loadtest.LoadTestReport;
+import com.java.functional.programming.streamgatherers.concurrency.loadtest.OpenLoopLoadGenerator;
+import com.java.functional.programming.streamgatherers.concurrency.loadtest.Request;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.Gatherers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Open loop load test of the concurrent gatherers against the in-process stand-in of the external service (no external-services.jar needed).
+ * 50 requests per second with a lognormal latency of median 20 ms keep ~1-2 requests in flight (Little's law),
+ * so a maxConcurrency of 16 must not add any queueing, while a maxConcurrency of 1 is saturated and the tail latency explodes.
+ * mapConcurrent emits in encounter order, so completed results wait inside it behind slower ones, which shows up as a higher utilisation.
+ * Use it to size maxConcurrency: raise the rate (or the latency) until the utilisation gets close to 1.
+ * */
+@Slf4j
+public class LoadTest6 {
+
+    private static final int MAX_CONCURRENCY = 16;
+
+    private ExternalServiceStandIn service;
+    private final HttpTransport transport = new HttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(10), 1000);
+    private final OpenLoopLoadGenerator loadGenerator = new OpenLoopLoadGenerator(50, 100);
+
+    @BeforeEach
+    public void startService() {
+        var behaviour = EndpointBehaviour.healthy(LatencyDistribution.lognormal(Duration.ofMillis(20), 0.25));
+        service = ExternalServiceStandIn.start(0, behaviour, behaviour);
+    }
+
+    @AfterEach
+    public void stopService() {
+        service.close();
+    }
+
+    private Request getProduct(Request request) {
+        transport.get(service.getBaseUrl() + "/products/" + request.id());
+        return request;
+    }
+
+    @Test
+    public void executeConcurrentLoadTest() {
+        var report = loadGenerator.run("executeConcurrent", MAX_CONCURRENCY,
+                GatherersUtilWithExecutorService.executeConcurrent(MAX_CONCURRENCY, this::getProduct));
+        assertNotSaturated(report);
+    }
+
+    @Test
+    public void executeConcurrentDelayErrorLoadTest() {
+        var report = loadGenerator.run("executeConcurrentDelayError", MAX_CONCURRENCY,
+                GatherersUtilWithExecutorService.executeConcurrentDelayError(MAX_CONCURRENCY, this::getProduct));
+        assertNotSaturated(report);
+    }
+
+    @Test
+    public void aggregateConcurrentLoadTest() {
+        var report = loadGenerator.run("aggregateConcurrent", MAX_CONCURRENCY,
+                GatherersUtilWithExecutorService.aggregateConcurrent(MAX_CONCURRENCY, (request, subTaskExecutor) -> {
+                    var product = subTaskExecutor.execute(() -> transport.get(service.getBaseUrl() + "/products/" + request.id()));
+                    var rating = subTaskExecutor.execute(() -> transport.get(service.getBaseUrl() + "/ratings/" + request.id()));
+                    product.get();
+                    rating.get();
+                    return request;
+                }));
+        assertNotSaturated(report);
+    }
+
+    @Test
+    public void mapConcurrentLoadTest() {
+        var report = loadGenerator.run("mapConcurrent", MAX_CONCURRENCY, Gatherers.mapConcurrent(MAX_CONCURRENCY, this::getProduct));
+        assertEquals(0, report.failed());
+        assertEquals(100, report.latency().getCount());
+    }
+
+    @Test
+    public void saturatedGathererShowsQueueingInLatencyTest() {
+        var report = new OpenLoopLoadGenerator(100, 100).run("executeConcurrent", 1, GatherersUtilWithExecutorService.executeConcurrent(1, this::getProduct));
+
+        assertEquals(0, report.failed());
+        assertTrue(report.utilisation() > 0.9, "utilisation " + report.utilisation());
+        // 2 requests arrive per service time, so the later ones wait for all the earlier ones
+        assertTrue(report.latency().getPercentile(99).toMillis() > 500, report.toString());
+    }
+
+    private static void assertNotSaturated(LoadTestReport report) {
+        assertEquals(0, report.failed());
+        assertEquals(100, report.latency().getCount());
+        assertTrue(report.utilisation() < 0.8, "utilisation " + report.utilisation());
+        assertTrue(report.latency().getPercentile(50).toMillis() >= 15, report.toString());
+    }
+}
@@ -1,8 +1,11 @@
 package com.java.functional.programming.streamgatherers.concurrency;
 
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithStructuredTaskScope;
+import com.java.functional.programming.gatherers.concurrent.circuitbreaker.CircuitBreaker;
+import com.java.functional.programming.gatherers.concurrent.circuitbreaker.CircuitBreakerPolicy;
+import com.java.functional.programming.gatherers.concurrent.structuredtaskscope.SubTaskExecutorImpl;
 import com.java.functional.programming.streamgatherers.concurrency.externalservice.RestClient;
-import com.java.functional.programming.streamgatherers.concurrency.util.GatherersUtilWithExecutorService;
-import com.java.functional.programming.streamgatherers.concurrency.util.GatherersUtilWithStructuredTaskScope;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
@@ -35,6 +38,24 @@ public class SubTaskExecutorTest5 {
                 .forEach(aggregatedProduct -> log.info("aggregatedProduct: {}", aggregatedProduct));
     }
 
+    /**
+     * Ensure that the external service is up and running.
+     * When the rating service degrades, the circuit opens and the remaining products are aggregated with a default rating,
+     * instead of every element waiting for a failing call.
+     * */
+    @Test
+    public void concurrentSubTaskExecutorWithCircuitBreakerTest() {
+        var ratingBreaker = new CircuitBreaker("rating", CircuitBreakerPolicy.of(0.5, Duration.ofSeconds(5)));
+        IntStream.rangeClosed(1, 100)
+                .boxed()
+                .gather(GatherersUtilWithExecutorService.aggregateConcurrent(10, (productId, subTaskExecutor) -> {
+                    var product = subTaskExecutor.execute(() -> RestClient.getProduct(productId));
+                    var rating = subTaskExecutor.execute(ratingBreaker.protect(() -> RestClient.getRating(productId))).onError(e -> 0);
+                    return new ProductAggregate(product.get(), rating.get());
+                }))
+                .forEach(aggregatedProduct -> log.info("aggregatedProduct: {}", aggregatedProduct));
+    }
+
     /**
      * Ensure that the external service is up and running
      * */
@@ -64,4 +85,26 @@ public class SubTaskExecutorTest5 {
                 }, Duration.ofMillis(10000)))
                 .forEach(aggregatedProduct -> log.info("aggregatedProduct: {}", aggregatedProduct));
     }
+
+    /**
+     * Ensure that the external service is up and running.
+     * The rating is raced across two replicas, the slower call is cancelled as soon as the first one answers,
+     * which cuts the tail latency of the aggregate to the faster of the two.
+     * */
+    @Test
+    public void concurrentSubTaskExecutorWithRacedRatingReplicasTest() {
+        IntStream.rangeClosed(1, 100)
+                .boxed()
+                .gather(GatherersUtilWithStructuredTaskScope.aggregateConcurrent(10, (productId, subTaskExecutor) -> {
+                    var product = subTaskExecutor.execute(() -> RestClient.getProduct(productId));
+                    var rating = subTaskExecutor.execute(() -> {
+                        try (var race = SubTaskExecutorImpl.openAnySuccessful()) {
+                            race.execute(() -> RestClient.getRating(productId)); // replica 1
+                            return race.execute(() -> RestClient.getRating(productId)).get(); // replica 2, get() returns the winner
+                        }
+                    });
+                    return new ProductAggregate(product.get(), rating.get());
+                }))
+                .forEach(aggregatedProduct -> log.info("aggregatedProduct: {}", aggregatedProduct));
+    }
 }
@@ -0,0 +1,33 @@
+package com.java.functional.programming.streamgatherers.concurrency.externalservice;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * How a simulated endpoint responds: after a latency sampled from the distribution,
+ * with an HTTP 500 for errorRate of the requests and a 200 for the rest.
+ * */
+public record EndpointBehaviour(LatencyDistribution latency, double errorRate) {
+
+    public EndpointBehaviour {
+        Objects.requireNonNull(latency, "latency");
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("errorRate must be within [0, 1], but was " + errorRate);
+        }
+    }
+
+    public static EndpointBehaviour healthy(LatencyDistribution latency) {
+        return new EndpointBehaviour(latency, 0);
+    }
+
+    /**
+     * roughly the behaviour of external-services.jar: ~1 second per call, no errors.
+     * */
+    public static EndpointBehaviour defaults() {
+        return healthy(LatencyDistribution.fixed(Duration.ofSeconds(1)));
+    }
+
+    public EndpointBehaviour withErrorRate(double errorRate) {
+        return new EndpointBehaviour(latency, errorRate);
+    }
+}
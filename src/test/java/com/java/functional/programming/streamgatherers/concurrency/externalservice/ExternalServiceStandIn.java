@@ -0,0 +1,114 @@
+package com.java.functional.programming.streamgatherers.concurrency.externalservice;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.random.RandomGenerator;
+
+/**
+ * In-process stand-in for external-services.jar, serving GET /products/{id} and GET /ratings/{id} with the configured latency and error rate.
+ * Every request is handled on its own virtual thread, so the server itself never limits the concurrency under test.
+ * The random generator is seeded, so a run with the same seed samples the same latencies and errors (in arrival order).
+ *
+ *   try (var service = ExternalServiceStandIn.start(0, EndpointBehaviour.defaults(), EndpointBehaviour.defaults())) {
+ *       var product = transport.get(service.getBaseUrl() + "/products/1");
+ *   }
+ * Port 7070 makes it a drop-in replacement for the demo tests, port 0 picks a free port.
+ * */
+@Slf4j
+public class ExternalServiceStandIn implements AutoCloseable {
+
+    private final HttpServer server;
+    private final RandomGenerator random;
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+
+    private ExternalServiceStandIn(HttpServer server, long seed) {
+        this.server = server;
+        this.random = new Random(seed); // thread safe
+    }
+
+    public static ExternalServiceStandIn start(int port, EndpointBehaviour products, EndpointBehaviour ratings) {
+        return start(port, products, ratings, 42);
+    }
+
+    public static ExternalServiceStandIn start(int port, EndpointBehaviour products, EndpointBehaviour ratings, long seed) {
+        Objects.requireNonNull(products, "products");
+        Objects.requireNonNull(ratings, "ratings");
+        try {
+            var server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1000);
+            var standIn = new ExternalServiceStandIn(server, seed);
+            server.createContext("/products/", exchange -> standIn.handle(exchange, products, id -> "product-" + id));
+            server.createContext("/ratings/", exchange -> standIn.handle(exchange, ratings, id -> String.valueOf(id % 5 + 1)));
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.start();
+            log.info("external service stand-in listening on {}", standIn.getBaseUrl());
+            return standIn;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange, EndpointBehaviour behaviour, IntFunction<String> body) throws IOException {
+        requestCount.increment();
+        try (exchange) {
+            int id;
+            try {
+                var path = exchange.getRequestURI().getPath();
+                id = Integer.parseInt(path.substring(path.lastIndexOf('/') + 1));
+            } catch (NumberFormatException e) {
+                respond(exchange, 400, "invalid id");
+                return;
+            }
+            long latencyNanos;
+            boolean fail;
+            synchronized (random) { // one sample per request, in arrival order
+                latencyNanos = behaviour.latency().sampleNanos(random);
+                fail = random.nextDouble() < behaviour.errorRate();
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(0, latencyNanos));
+            if (fail) {
+                errorCount.increment();
+                respond(exchange, 500, "injected failure");
+            } else {
+                respond(exchange, 200, body.apply(id));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // server is stopping
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        var bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+}
@@ -0,0 +1,125 @@
+package com.java.functional.programming.streamgatherers.concurrency.externalservice;
+
+import com.java.functional.programming.gatherers.concurrent.GatherersUtilWithExecutorService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The stand-in serves products and ratings with the configured latency and error rate, no external process needed.
+ * */
+@Slf4j
+public class ExternalServiceStandInTest {
+
+    private final HttpTransport transport = new HttpTransport(Duration.ofSeconds(5), Duration.ofSeconds(10), 1000);
+
+    @Test
+    public void servesProductsAndRatingsTest() {
+        var latency = EndpointBehaviour.healthy(LatencyDistribution.fixed(Duration.ofMillis(5)));
+        try (var service = ExternalServiceStandIn.start(0, latency, latency)) {
+            assertEquals("product-7", transport.get(service.getBaseUrl() + "/products/7"));
+            assertEquals("3", transport.get(service.getBaseUrl() + "/ratings/7"));
+            assertEquals(2, service.getRequestCount());
+        }
+    }
+
+    @Test
+    public void concurrentRequestsAreNotSerializedTest() {
+        var latency = EndpointBehaviour.healthy(LatencyDistribution.fixed(Duration.ofMillis(200)));
+        try (var service = ExternalServiceStandIn.start(0, latency, latency)) {
+            long start = System.nanoTime();
+            List<String> products = IntStream.range(0, 200)
+                    .boxed()
+                    .gather(GatherersUtilWithExecutorService.executeConcurrent(200, (Integer id) -> transport.get(service.getBaseUrl() + "/products/" + id)))
+                    .toList();
+            long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+            log.info("200 concurrent calls of 200 ms took {} ms", elapsedMillis);
+            assertEquals(200, products.size());
+            assertTrue(elapsedMillis < 10_000, "took " + elapsedMillis + " ms"); // serialized it would take 40 s, the rest is connection setup
+        }
+    }
+
+    @Test
+    public void injectedErrorsFollowErrorRateTest() {
+        var flaky = EndpointBehaviour.healthy(LatencyDistribution.fixed(Duration.ofMillis(1))).withErrorRate(0.2);
+        try (var service = ExternalServiceStandIn.start(0, EndpointBehaviour.defaults(), flaky)) {
+            long failures = IntStream.range(0, 500)
+                    .boxed()
+                    .gather(GatherersUtilWithExecutorService.executeConcurrent(50, (Integer id) -> {
+                        try {
+                            transport.get(service.getBaseUrl() + "/ratings/" + id);
+                            return false;
+                        } catch (RuntimeException e) {
+                            return true;
+                        }
+                    }))
+                    .filter(failed -> failed)
+                    .count();
+
+            log.info("{} of 500 rating calls failed", failures);
+            assertEquals(service.getErrorCount(), failures);
+            assertTrue(failures > 50 && failures < 150, failures + " failures");
+        }
+    }
+
+    @Test
+    public void interruptedCallReturnsPromptlyTest() throws InterruptedException {
+        var hanging = EndpointBehaviour.healthy(LatencyDistribution.fixed(Duration.ofSeconds(30)));
+        try (var service = ExternalServiceStandIn.start(0, hanging, hanging)) {
+            var returnedAt = new AtomicLong();
+            var caller = Thread.ofVirtual().start(() -> {
+                try {
+                    transport.get(service.getBaseUrl() + "/products/1");
+                } catch (RuntimeException e) {
+                    returnedAt.set(System.nanoTime());
+                }
+            });
+            Thread.sleep(200); // the request is in flight
+            long interruptedAt = System.nanoTime();
+            caller.interrupt();
+            caller.join(Duration.ofSeconds(5));
+
+            assertTrue(returnedAt.get() != 0, "call did not return");
+            assertTrue(Duration.ofNanos(returnedAt.get() - interruptedAt).toMillis() < 200);
+        }
+    }
+
+    @Test
+    public void invalidIdIsRejectedTest() {
+        try (var service = ExternalServiceStandIn.start(0, EndpointBehaviour.defaults(), EndpointBehaviour.defaults())) {
+            assertThrows(RuntimeException.class, () -> transport.get(service.getBaseUrl() + "/products/abc"));
+        }
+    }
+
+    @Test
+    public void latencyDistributionsHaveTheExpectedShapeTest() {
+        var random = RandomGenerator.of("L64X128MixRandom");
+        long[] lognormal = sortedSamples(LatencyDistribution.lognormal(Duration.ofMillis(10), 0.5), random);
+        assertEquals(10, Duration.ofNanos(lognormal[5_000]).toMillis(), 1);
+        assertTrue(lognormal[9_900] > 2.5 * lognormal[5_000]); // long right tail
+
+        long[] bimodal = sortedSamples(LatencyDistribution.bimodal(
+                LatencyDistribution.fixed(Duration.ofMillis(1)), LatencyDistribution.fixed(Duration.ofMillis(100)), 0.1), random);
+        assertEquals(1, Duration.ofNanos(bimodal[8_500]).toMillis());
+        assertEquals(100, Duration.ofNanos(bimodal[9_500]).toMillis());
+
+        long[] slowTail = sortedSamples(LatencyDistribution.fixed(Duration.ofMillis(5)).withSlowTail(0.01, Duration.ofMillis(500)), random);
+        assertEquals(5, Duration.ofNanos(slowTail[9_800]).toMillis());
+        assertEquals(505, Duration.ofNanos(slowTail[9_995]).toMillis());
+    }
+
+    private static long[] sortedSamples(LatencyDistribution distribution, RandomGenerator random) {
+        return LongStream.generate(() -> distribution.sampleNanos(random)).limit(10_000).sorted().toArray();
+    }
+}
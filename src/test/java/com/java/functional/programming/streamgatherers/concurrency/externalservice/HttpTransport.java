@@ -0,0 +1,147 @@
+package com.java.functional.programming.streamgatherers.concurrency.externalservice;
+
+import com.java.functional.programming.gatherers.concurrent.deadline.Deadline;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Shared HTTP transport on top of the JDK HttpClient:
+ *  - one client, so connections are reused (keep-alive) instead of being opened per call.
+ *  - HTTP/2 is preferred: over h2c capable servers all calls are multiplexed over a few connections, otherwise it falls back to HTTP/1.1.
+ *  - connectTimeout bounds the connection setup, requestTimeout bounds every single call (until the response headers arrive).
+ *  - within a Deadline, a call times out at the deadline when that comes before requestTimeout, and is not made at all once it has passed.
+ *  - at most maxConcurrentRequests calls are in flight, which bounds the number of open HTTP/1.1 connections as well.
+ *    A caller of get(...) over the bound waits (parks) for a permit, a call of getAsync(...) is queued without blocking the caller
+ *    and sent by whoever releases the next permit.
+ *
+ * get(...) is interruptible: an interrupted (e.g. cancelled) caller returns right away and aborts its exchange,
+ * whether it was still connecting, waiting for the response or reading it.
+ * */
+@Slf4j
+public class HttpTransport {
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final Semaphore permits;
+    private final ConcurrentLinkedQueue<BooleanSupplier> waitingCalls = new ConcurrentLinkedQueue<>(); // async calls waiting for a permit, in arrival order
+
+    public HttpTransport(Duration connectTimeout, Duration requestTimeout, int maxConcurrentRequests) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.requestTimeout = requestTimeout;
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+    }
+
+    public String get(String url) {
+        var request = this.request(url);
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        CompletableFuture<HttpResponse<String>> response = null;
+        try { // from here on the permit is released whatever happens, also when sendAsync throws
+            log.debug("calling {}", url);
+            response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+            return bodyOf(url, response.get());
+        } catch (InterruptedException e) {
+            response.cancel(true); // aborts the exchange, the connection is not left busy with a response nobody reads
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw (e.getCause() instanceof RuntimeException re) ? re : new RuntimeException(e.getCause());
+        } finally {
+            this.releasePermit();
+        }
+    }
+
+    /**
+     * Non-blocking call, the response is handled by the client's own threads. When maxConcurrentRequests calls are in flight
+     * the call is queued, the caller never blocks. Cancelling the returned future aborts the exchange, or drops the call while it is queued.
+     * */
+    public CompletableFuture<String> getAsync(String url) {
+        var request = this.request(url);
+        var result = new CompletableFuture<String>();
+        BooleanSupplier call = () -> { // runs holding a permit, false when it did not use it
+            if (result.isDone()) { // cancelled while queued
+                return false;
+            }
+            log.debug("calling {}", url);
+            CompletableFuture<HttpResponse<String>> exchange;
+            try {
+                exchange = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+            } catch (RuntimeException e) { // e.g. the client was shut down
+                result.completeExceptionally(e);
+                return false;
+            }
+            result.whenComplete((body, e) -> exchange.cancel(true)); // a stage derived from sendAsync would not abort the exchange when cancelled
+            exchange.whenComplete((response, e) -> {
+                this.releasePermit();
+                if (e != null) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+                try {
+                    result.complete(bodyOf(url, response));
+                } catch (RuntimeException re) {
+                    result.completeExceptionally(re);
+                }
+            });
+            return true;
+        };
+        if (permits.tryAcquire()) {
+            if (!call.getAsBoolean()) {
+                this.releasePermit();
+            }
+        } else {
+            waitingCalls.add(call);
+            if (permits.tryAcquire()) { // a permit released before the call was queued must not be missed
+                this.releasePermit();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * hands the permit over to the first queued async call which uses it, or gives it back to the semaphore when there is none.
+     * A loop, not a recursion: a long run of cancelled calls is skipped in constant stack depth.
+     * */
+    private void releasePermit() {
+        BooleanSupplier next;
+        while ((next = waitingCalls.poll()) != null) {
+            if (next.getAsBoolean()) {
+                return;
+            }
+        }
+        permits.release();
+    }
+
+    private HttpRequest request(String url) {
+        Deadline.throwIfExpired("GET " + url);
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Deadline.remainingOr(requestTimeout))
+                .GET()
+                .build();
+    }
+
+    private static String bodyOf(String url, HttpResponse<String> response) {
+        if (response.statusCode() / 100 != 2) {
+            throw new RuntimeException("GET " + url + " failed with status " + response.statusCode());
+        }
+        return response.body(); // response size is small
+    }
+}
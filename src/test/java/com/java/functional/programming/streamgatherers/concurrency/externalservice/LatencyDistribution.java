@@ -0,0 +1,42 @@
+package com.java.functional.programming.streamgatherers.concurrency.externalservice;
+
+import java.time.Duration;
+import java.util.random.RandomGenerator;
+
+/**
+ * Response time of a simulated endpoint, sampled per request.
+ * */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    long sampleNanos(RandomGenerator random);
+
+    static LatencyDistribution fixed(Duration latency) {
+        long nanos = latency.toNanos();
+        return random -> nanos;
+    }
+
+    /**
+     * the usual shape of service latencies: most requests close to the median, a long tail to the right.
+     * sigma 0.25 gives a p99 of ~1.8 x median, sigma 0.5 of ~3.2 x median.
+     * */
+    static LatencyDistribution lognormal(Duration median, double sigma) {
+        long medianNanos = median.toNanos();
+        return random -> (long) (medianNanos * Math.exp(sigma * random.nextGaussian()));
+    }
+
+    /**
+     * two populations, e.g. cache hit / cache miss on the server side: slowProbability of the requests follow slow, the rest fast.
+     * */
+    static LatencyDistribution bimodal(LatencyDistribution fast, LatencyDistribution slow, double slowProbability) {
+        return random -> random.nextDouble() < slowProbability ? slow.sampleNanos(random) : fast.sampleNanos(random);
+    }
+
+    /**
+     * slow tail injection: tailProbability of the requests take tailLatency longer (GC pause, noisy neighbour, retransmit).
+     * */
+    default LatencyDistribution withSlowTail(double tailProbability, Duration tailLatency) {
+        long tailNanos = tailLatency.toNanos();
+        return random -> this.sampleNanos(random) + (random.nextDouble() < tailProbability ? tailNanos : 0);
+    }
+}
@@ -1,33 +1,35 @@
 package com.java.functional.programming.streamgatherers.concurrency.externalservice;
 
-import lombok.extern.slf4j.Slf4j;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
-import java.net.URI;
-
-@Slf4j
 public class RestClient {
 
-    private static final String PRODUCT_REQUEST_FORMAT = "http://localhost:7070/products/%d";
-    private static final String RATING_REQUEST_FORMAT = "http://localhost:7070/ratings/%d";
+    /**
+     * external-services.jar by default, -Dexternal.service.url=... points the demos at another instance, e.g. an ExternalServiceStandIn.
+     * */
+    private static final String BASE_URL = System.getProperty("external.service.url", "http://localhost:7070");
+    private static final String PRODUCT_REQUEST_FORMAT = BASE_URL + "/products/%d";
+    private static final String RATING_REQUEST_FORMAT = BASE_URL + "/ratings/%d";
+
+    /**
+     * shared by all calls, so connections are pooled and reused. Sized for the 1000-way concurrency of the demos.
+     * */
+    private static final HttpTransport TRANSPORT = new HttpTransport(Duration.ofSeconds(2), Duration.ofSeconds(10), 1000);
 
     public static String getProduct(int id){
-        return callExternalService(PRODUCT_REQUEST_FORMAT.formatted(id));
+        return TRANSPORT.get(PRODUCT_REQUEST_FORMAT.formatted(id));
     }
 
     public static Integer getRating(int id){
-        return Integer.parseInt(callExternalService(RATING_REQUEST_FORMAT.formatted(id)));
+        return Integer.parseInt(TRANSPORT.get(RATING_REQUEST_FORMAT.formatted(id)));
     }
 
-    /**
-     * This is a simple HTTP client for demo purposes.
-     * For production use, prefer RestClient / WebClient / JDK - HttpClient
-     * */
-    private static String callExternalService(String url){
-        log.info("calling {}", url);
-        try(var stream = URI.create(url).toURL().openStream()){
-            return new String(stream.readAllBytes()); // response size is small
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+    public static CompletableFuture<String> getProductAsync(int id){
+        return TRANSPORT.getAsync(PRODUCT_REQUEST_FORMAT.formatted(id));
+    }
+
+    public static CompletableFuture<Integer> getRatingAsync(int id){
+        return TRANSPORT.getAsync(RATING_REQUEST_FORMAT.formatted(id)).thenApply(Integer::parseInt);
     }
 }
@@ -0,0 +1,28 @@
+package com.java.functional.programming.streamgatherers.concurrency.loadtest;
+
+import com.java.functional.programming.gatherers.concurrent.metrics.LatencyHistogram;
+
+/**
+ * Result of one open loop run.
+ * offeredRate:  requests per second the generator tried to send.
+ * throughput:   completed requests per second, over the whole run.
+ * latency:      from the intended start of every request to its emission, so time spent waiting for a free slot is included.
+ * utilisation:  average number of requests inside the gatherer (Little's law) divided by maxConcurrency.
+ *               Close to 1 means the gatherer is saturated and requests queue in front of it.
+ * failed:       requests that were not emitted (failed, or lost when the stream failed).
+ * */
+public record LoadTestReport(String name,
+                             int maxConcurrency,
+                             long requests,
+                             long failed,
+                             double offeredRate,
+                             double throughput,
+                             double utilisation,
+                             LatencyHistogram latency) {
+
+    @Override
+    public String toString() {
+        return "%s (maxConcurrency=%d): offered=%.0f/s throughput=%.0f/s utilisation=%.0f%% failed=%d/%d latency: %s".formatted(
+                name, maxConcurrency, offeredRate, throughput, utilisation * 100, failed, requests, latency);
+    }
+}
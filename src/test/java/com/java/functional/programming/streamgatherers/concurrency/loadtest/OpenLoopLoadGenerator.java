@@ -0,0 +1,73 @@
+package com.java.functional.programming.streamgatherers.concurrency.loadtest;
+
+import com.java.functional.programming.gatherers.concurrent.metrics.LatencyHistogram;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Gatherer;
+import java.util.stream.IntStream;
+
+/**
+ * Drives a gatherer with requests arriving at a fixed rate (open loop): request i is due at start + i / requestsPerSecond,
+ * whether or not the gatherer kept up. When the gatherer applies backpressure the source falls behind its schedule,
+ * and the latency is still measured from the intended start, so the queueing caused by a too small maxConcurrency shows up in the percentiles
+ * instead of being hidden (coordinated omission).
+ *
+ *   var report = new OpenLoopLoadGenerator(200, 1000).run("executeConcurrent", 16,
+ *           executeConcurrent(16, request -> { RestClient.getProduct(request.id()); return request; }));
+ * */
+@Slf4j
+public class OpenLoopLoadGenerator {
+
+    private final double requestsPerSecond;
+    private final int requestCount;
+
+    public OpenLoopLoadGenerator(double requestsPerSecond, int requestCount) {
+        if (!(requestsPerSecond > 0)) {
+            throw new IllegalArgumentException("requestsPerSecond must be > 0, but was " + requestsPerSecond);
+        }
+        if (requestCount <= 0) {
+            throw new IllegalArgumentException("requestCount must be > 0, but was " + requestCount);
+        }
+        this.requestsPerSecond = requestsPerSecond;
+        this.requestCount = requestCount;
+    }
+
+    /**
+     * @param maxConcurrency the concurrency the gatherer was built with, only used to compute the utilisation
+     * @param gatherer       must emit every request it was given once it has been served
+     * */
+    public LoadTestReport run(String name, int maxConcurrency, Gatherer<Request, ?, Request> gatherer) {
+        var latency = new LatencyHistogram();
+        var timeInGatherer = new LongAdder();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        long start = System.nanoTime();
+        try {
+            IntStream.range(0, requestCount)
+                    .mapToObj(id -> {
+                        long intendedStart = start + id * intervalNanos;
+                        long wait;
+                        while ((wait = intendedStart - System.nanoTime()) > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                        return new Request(id, intendedStart);
+                    })
+                    .peek(request -> request.admitted(System.nanoTime()))
+                    .gather(gatherer)
+                    .forEach(request -> {
+                        long now = System.nanoTime();
+                        latency.record(now - request.intendedStartNanos());
+                        timeInGatherer.add(now - request.admittedNanos());
+                    });
+        } catch (RuntimeException e) {
+            log.warn("{} failed: {}", name, e.toString());
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        var report = new LoadTestReport(name, maxConcurrency, requestCount, requestCount - latency.getCount(), requestsPerSecond,
+                latency.getCount() / elapsedSeconds, timeInGatherer.sum() / 1e9 / elapsedSeconds / maxConcurrency, latency);
+        log.info("{}", report);
+        return report;
+    }
+}
@@ -0,0 +1,39 @@
+package com.java.functional.programming.streamgatherers.concurrency.loadtest;
+
+/**
+ * One request of an open loop load test. The gatherer under test must emit the request it was given (e.g. return it from its mapper),
+ * so the load generator can tell when it completed.
+ * intendedStartNanos is when the request was scheduled to arrive, which is not necessarily when the gatherer accepted it.
+ * */
+public final class Request {
+
+    private final int id;
+    private final long intendedStartNanos;
+    private long admittedNanos; // when the gatherer accepted it
+
+    Request(int id, long intendedStartNanos) {
+        this.id = id;
+        this.intendedStartNanos = intendedStartNanos;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    long intendedStartNanos() {
+        return intendedStartNanos;
+    }
+
+    long admittedNanos() {
+        return admittedNanos;
+    }
+
+    void admitted(long nanos) {
+        this.admittedNanos = nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "Request{id=" + id + "}";
+    }
+}